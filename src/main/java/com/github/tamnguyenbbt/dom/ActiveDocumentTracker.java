@@ -0,0 +1,335 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.Parser;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a jsoup Document in sync with the page of a WebDriver without reparsing the whole page source on every call.
+ * The first call installs a MutationObserver in the page and loads the full page source. Later calls ask the observer
+ * which subtrees changed: none means the cached Document is returned without transferring anything, otherwise only
+ * the outer html of the changed subtrees is transferred and patched into the cached Document.
+ * A navigation (the observer is gone), a change the cached Document cannot be matched with, or too many changes fall
+ * back to a full reload. Drivers that cannot execute scripts always reload.
+ */
+public class ActiveDocumentTracker
+{
+    public static final int DEFAULT_MAX_PATCHED_SUBTREES = 50;
+
+    static final String INSTALL_SCRIPT =
+            "var state = window.__domUtilTracker;" +
+            "if (state) { state.observer.disconnect(); }" +
+            "state = window.__domUtilTracker = { changed: [] };" +
+            "state.observer = new MutationObserver(function(mutations) {" +
+            "  for (var i = 0; i < mutations.length; i++) {" +
+            "    var target = mutations[i].target;" +
+            "    state.changed.push(target.nodeType === 1 ? target : target.parentElement);" +
+            "  }" +
+            "});" +
+            "state.observer.observe(document, { childList: true, subtree: true, attributes: true, characterData: true });" +
+            "return true;";
+
+    /**
+     * Returns null when no observer is installed, otherwise the changed subtrees since the previous call as
+     * [{path: [tag, index, tag, index...], html: outerHTML}] where the path leads from the html element down to the
+     * subtree root, or [{reset: true}] when the html element itself changed
+     */
+    static final String POLL_SCRIPT =
+            "var state = window.__domUtilTracker;" +
+            "if (!state) { return null; }" +
+            "var changed = state.changed; state.changed = [];" +
+            "var root = document.documentElement, roots = [], result = [];" +
+            "for (var i = 0; i < changed.length; i++) {" +
+            "  var element = changed[i];" +
+            "  if (!element || !root.contains(element) || roots.indexOf(element) >= 0) { continue; }" +
+            "  if (element === root) { return [{ reset: true }]; }" +
+            "  roots.push(element);" +
+            "}" +
+            "for (var i = 0; i < roots.length; i++) {" +
+            "  var covered = false;" +
+            "  for (var parent = roots[i].parentElement; parent && !covered; parent = parent.parentElement) {" +
+            "    covered = roots.indexOf(parent) >= 0;" +
+            "  }" +
+            "  if (covered) { continue; }" +
+            "  var path = [];" +
+            "  for (var element = roots[i]; element !== root; element = element.parentElement) {" +
+            "    path.unshift(Array.prototype.indexOf.call(element.parentElement.children, element));" +
+            "    path.unshift(element.tagName.toLowerCase());" +
+            "  }" +
+            "  result.push({ path: path, html: roots[i].outerHTML });" +
+            "}" +
+            "return result;";
+
+    private final WebDriver driver;
+    private final int maxPatchedSubtrees;
+    private Document document;
+    private long version;
+    private long fullLoadCount;
+    private long patchCount;
+
+    public ActiveDocumentTracker(WebDriver driver)
+    {
+        this(driver, DEFAULT_MAX_PATCHED_SUBTREES);
+    }
+
+    /**
+     * @param maxPatchedSubtrees number of changed subtrees above which the page source is reloaded instead of patched
+     */
+    public ActiveDocumentTracker(WebDriver driver, int maxPatchedSubtrees)
+    {
+        this.driver = driver;
+        this.maxPatchedSubtrees = maxPatchedSubtrees;
+    }
+
+    /**
+     * The Document of the current page, patched or reloaded only if the page changed since the previous call
+     */
+    public synchronized Document getActiveDocument()
+    {
+        if (document == null || !(driver instanceof JavascriptExecutor))
+        {
+            return load();
+        }
+
+        List<?> changes;
+
+        try
+        {
+            changes = (List<?>) ((JavascriptExecutor) driver).executeScript(POLL_SCRIPT);
+        }
+        catch (WebDriverException e)
+        {
+            return load();
+        }
+
+        if (changes == null || changes.size() > maxPatchedSubtrees || !patch(changes))
+        {
+            return load();
+        }
+
+        if (!changes.isEmpty())
+        {
+            patchCount++;
+            version++;
+            DomIndex.invalidate(document);
+        }
+
+        return document;
+    }
+
+    /**
+     * The Document of the current page and its version, read under the same lock so that the version is the one of
+     * the returned Document even when other threads poll the same tracker
+     */
+    public synchronized Snapshot getSnapshot()
+    {
+        Document active = getActiveDocument();
+        return new Snapshot(active, version);
+    }
+
+    /**
+     * Incremented every time the returned Document changes, so callers can tell whether the page changed
+     */
+    public synchronized long getVersion()
+    {
+        return version;
+    }
+
+    public synchronized long getFullLoadCount()
+    {
+        return fullLoadCount;
+    }
+
+    public synchronized long getPatchCount()
+    {
+        return patchCount;
+    }
+
+    private Document load()
+    {
+        if (driver instanceof JavascriptExecutor)
+        {
+            try
+            {
+                //installed before reading the source so that no change in between is missed
+                ((JavascriptExecutor) driver).executeScript(INSTALL_SCRIPT);
+            }
+            catch (WebDriverException e)
+            {
+                //the page cannot run scripts, every call reloads
+            }
+        }
+
+        if (document != null)
+        {
+            DomIndex.invalidate(document);
+        }
+
+        document = Jsoup.parse(driver.getPageSource());
+        fullLoadCount++;
+        version++;
+        return document;
+    }
+
+    private boolean patch(List<?> changes)
+    {
+        List<Element> targets = new ArrayList<>();
+
+        //resolve every path before touching the Document so that a mismatch leaves it intact for the reload
+        for (Object change : changes)
+        {
+            Map<?, ?> subtree = (Map<?, ?>) change;
+
+            if (Boolean.TRUE.equals(subtree.get("reset")))
+            {
+                return false;
+            }
+
+            Element target = find((List<?>) subtree.get("path"));
+
+            if (target == null)
+            {
+                return false;
+            }
+
+            targets.add(target);
+        }
+
+        List<List<Node>> replacements = new ArrayList<>();
+
+        for (int i = 0; i < targets.size(); i++)
+        {
+            Element target = targets.get(i);
+            String html = (String) ((Map<?, ?>) changes.get(i)).get("html");
+
+            if (target.parent() == document.child(0))
+            {
+                //a fragment parsed in the html context gets an implied head or body, so the head or body is parsed
+                //as a page and copied into the target instead of replacing it
+                Element parsed = getHeadOrBody(Jsoup.parse(html, document.baseUri()), target.tagName());
+
+                if (parsed == null)
+                {
+                    return false;
+                }
+
+                replacements.add(Collections.singletonList(parsed));
+            }
+            else
+            {
+                replacements.add(Parser.parseFragment(html, target.parent(), document.baseUri()));
+            }
+        }
+
+        for (int i = 0; i < targets.size(); i++)
+        {
+            Element target = targets.get(i);
+
+            if (target.parent() == document.child(0))
+            {
+                copyInto((Element) replacements.get(i).get(0), target);
+                continue;
+            }
+
+            for (Node node : replacements.get(i))
+            {
+                target.before(node);
+            }
+
+            target.remove();
+        }
+
+        return true;
+    }
+
+    private static Element getHeadOrBody(Document page, String tagName)
+    {
+        switch (tagName)
+        {
+            case "head":
+                return page.head();
+            case "body":
+                return page.body();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Replaces the attributes and children of the target with those of the source
+     */
+    private static void copyInto(Element source, Element target)
+    {
+        for (Attribute attribute : new ArrayList<>(target.attributes().asList()))
+        {
+            target.removeAttr(attribute.getKey());
+        }
+
+        for (Attribute attribute : source.attributes())
+        {
+            target.attr(attribute.getKey(), attribute.getValue());
+        }
+
+        target.empty();
+        target.insertChildren(0, new ArrayList<>(source.childNodes()));
+    }
+
+    private Element find(List<?> path)
+    {
+        Element element = document.child(0);
+
+        for (int i = 0; i + 1 < path.size(); i += 2)
+        {
+            int index = ((Number) path.get(i + 1)).intValue();
+
+            if (index < 0 || index >= element.children().size())
+            {
+                return null;
+            }
+
+            element = element.child(index);
+
+            if (!element.tagName().equalsIgnoreCase((String) path.get(i)))
+            {
+                return null;
+            }
+        }
+
+        return element.parent() == null ? null : element;
+    }
+
+    /**
+     * A Document returned by the tracker and the version it had when it was returned
+     */
+    public static class Snapshot
+    {
+        private final Document document;
+        private final long version;
+
+        Snapshot(Document document, long version)
+        {
+            this.document = document;
+            this.version = version;
+        }
+
+        public Document getDocument()
+        {
+            return document;
+        }
+
+        public long getVersion()
+        {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves many anchor and target selector pairs against the same Document in one pass over its elements.
+ * All anchor texts are matched together by a multi-pattern matcher over the case-folded own texts and all distinct
+ * target selectors are evaluated in the same pass, except bare tag names which are served by the tag partition of the
+ * {@link DomIndex}. Each query keeps the exact, containing and BestEffort semantics
+ * of the single call DomUtil overloads and reports its failures in its own {@link AnchorResolution}.
+ */
+public class AnchorBatchResolver
+{
+    public List<AnchorResolution> resolve(Document document, List<AnchorQuery> queries)
+    {
+        DomIndex index = DomIndex.of(document);
+        Map<String, Integer> patternIds = new LinkedHashMap<>();
+        Map<Integer, List<Integer>> queryIdsByPatternId = new HashMap<>();
+        Map<String, Evaluator> targetEvaluators = new LinkedHashMap<>();
+        List<AnchorCandidates> anchorCandidates = new ArrayList<>();
+
+        for (int queryId = 0; queryId < queries.size(); queryId++)
+        {
+            AnchorQuery query = queries.get(queryId);
+            String pattern = NormalizedText.fold(query.getAnchorOwnTextPattern());
+
+            if (!patternIds.containsKey(pattern))
+            {
+                patternIds.put(pattern, patternIds.size());
+            }
+
+            queryIdsByPatternId.computeIfAbsent(patternIds.get(pattern), key -> new ArrayList<>()).add(queryId);
+
+            boolean rankedSearch = !query.outwardSearch && !DomIndex.isTagName(query.targetSelector);
+
+            if (rankedSearch && !targetEvaluators.containsKey(query.targetSelector))
+            {
+                targetEvaluators.put(query.targetSelector, QueryParser.parse(query.targetSelector));
+            }
+
+            anchorCandidates.add(new AnchorCandidates());
+        }
+
+        OwnTextMatcher matcher = new OwnTextMatcher(new ArrayList<>(patternIds.keySet()));
+        Map<String, List<Element>> targetCandidates = new HashMap<>();
+
+        for (AnchorQuery query : queries)
+        {
+            if (!query.outwardSearch && DomIndex.isTagName(query.targetSelector))
+            {
+                targetCandidates.put(query.targetSelector, index.getElementsByTagName(query.targetSelector));
+            }
+        }
+
+        for (String targetSelector : targetEvaluators.keySet())
+        {
+            targetCandidates.put(targetSelector, new ArrayList<>());
+        }
+
+        for (Element element : index.getElements())
+        {
+            NormalizedText ownText = index.getNormalizedOwnText(element);
+
+            //an empty own text can only equal an empty pattern
+            if (!ownText.isEmpty() || matcher.hasEmptyPattern())
+            {
+                String foldedOwnText = ownText.getFolded();
+                matcher.match(foldedOwnText, (patternId, start, end) ->
+                {
+                    boolean whole = start == 0 && end == foldedOwnText.length();
+
+                    for (int queryId : queryIdsByPatternId.get(patternId))
+                    {
+                        anchorCandidates.get(queryId).add(queries.get(queryId), element, ownText.getTrimmed(), whole);
+                    }
+                });
+            }
+
+            for (Map.Entry<String, Evaluator> targetEvaluator : targetEvaluators.entrySet())
+            {
+                if (targetEvaluator.getValue().matches(document, element))
+                {
+                    targetCandidates.get(targetEvaluator.getKey()).add(element);
+                }
+            }
+        }
+
+        TreeDistance treeDistance = new TreeDistance(index);
+        List<AnchorResolution> resolutions = new ArrayList<>();
+
+        for (int queryId = 0; queryId < queries.size(); queryId++)
+        {
+            AnchorQuery query = queries.get(queryId);
+            resolutions.add(resolve(document, query, anchorCandidates.get(queryId), targetCandidates.get(query.targetSelector), treeDistance));
+        }
+
+        return resolutions;
+    }
+
+    private AnchorResolution resolve(Document document, AnchorQuery query, AnchorCandidates candidates, List<Element> targets,
+                                     TreeDistance treeDistance)
+    {
+        List<Element> anchors = query.isExactMatchAllowed() ? candidates.exactMatches : new ArrayList<>();
+
+        if (anchors.isEmpty() && query.isContainingAllowed())
+        {
+            anchors = candidates.containingMatches;
+        }
+
+        if (anchors.isEmpty())
+        {
+            return new AnchorResolution(query, AnchorResolution.Status.NO_ANCHOR_ELEMENT_FOUND, anchors, new ArrayList<>());
+        }
+
+        if (anchors.size() > 1 && query.indexIfMultipleFound >= 0)
+        {
+            if (query.indexIfMultipleFound >= anchors.size())
+            {
+                return new AnchorResolution(query, AnchorResolution.Status.ANCHOR_INDEX_IF_MULTIPLE_FOUND_OUT_OF_BOUND, anchors, new ArrayList<>());
+            }
+
+            List<Element> chosen = new ArrayList<>();
+            chosen.add(anchors.get(query.indexIfMultipleFound));
+            anchors = chosen;
+        }
+        else if (anchors.size() > 1 && !query.isBestEffort())
+        {
+            return new AnchorResolution(query, AnchorResolution.Status.AMBIGUOUS_ANCHOR_ELEMENTS, anchors, new ArrayList<>());
+        }
+
+        List<Element> closest = query.outwardSearch
+                ? new ClosestElementSearch(document, query.maxRadius).getClosestElements(anchors, query.targetSelector)
+                : getClosestElements(anchors, targets, treeDistance);
+        AnchorResolution.Status status = closest.isEmpty() ? AnchorResolution.Status.NO_ELEMENT_FOUND : AnchorResolution.Status.FOUND;
+        return new AnchorResolution(query, status, anchors, closest);
+    }
+
+    private List<Element> getClosestElements(List<Element> anchors, List<Element> targets, TreeDistance treeDistance)
+    {
+        List<Element> closest = new ArrayList<>();
+        int closestDistance = Integer.MAX_VALUE;
+
+        for (Element target : targets)
+        {
+            int distance = Integer.MAX_VALUE;
+
+            for (Element anchor : anchors)
+            {
+                distance = Math.min(distance, treeDistance.distance(anchor, target));
+            }
+
+            if (distance < closestDistance)
+            {
+                closest.clear();
+                closestDistance = distance;
+            }
+
+            if (distance == closestDistance)
+            {
+                closest.add(target);
+            }
+        }
+
+        return closest;
+    }
+
+    private static class AnchorCandidates
+    {
+        private final List<Element> exactMatches = new ArrayList<>();
+        private final List<Element> containingMatches = new ArrayList<>();
+
+        void add(AnchorQuery query, Element element, String ownText, boolean whole)
+        {
+            if (query.anchorTagName != null && !query.anchorTagName.equalsIgnoreCase(element.tagName()))
+            {
+                return;
+            }
+
+            String pattern = query.getAnchorOwnTextPattern();
+
+            //the matcher works on case-folded text, case sensitive queries are verified on the original own text
+            if (whole && (query.ignoreCase || ownText.equals(pattern)))
+            {
+                addOnce(exactMatches, element);
+            }
+
+            if (query.ignoreCase || ownText.contains(pattern))
+            {
+                addOnce(containingMatches, element);
+            }
+        }
+
+        private static void addOnce(List<Element> elements, Element element)
+        {
+            if (elements.isEmpty() || elements.get(elements.size() - 1) != element)
+            {
+                elements.add(element);
+            }
+        }
+    }
+}
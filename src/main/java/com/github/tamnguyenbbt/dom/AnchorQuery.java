@@ -0,0 +1,82 @@
+package com.github.tamnguyenbbt.dom;
+
+/**
+ * One anchor and target selector pair of a batch resolution.
+ * Built from an anchor text (and optional anchor tag name) with one of the {@link AnchorSearchMode}s, or from an
+ * {@link ElementInfo} whose conditions decide how the own text is matched.
+ */
+public class AnchorQuery
+{
+    public String anchorTagName;
+    public String anchorOwnText;
+    public String targetSelector;
+    public AnchorSearchMode searchMode;
+    public boolean ignoreCase;
+    public boolean containingOnly;
+    public int indexIfMultipleFound;
+
+    /**
+     * Find the target by expanding outward from the anchors instead of ranking every element matching the target
+     * selector, see {@link ClosestElementSearch}
+     */
+    public boolean outwardSearch;
+
+    /**
+     * Tree distance cap of the outward search, {@link ClosestElementSearch#UNBOUNDED} for no cap
+     */
+    public int maxRadius;
+
+    public AnchorQuery(String anchorOwnText, String targetSelector)
+    {
+        this(null, anchorOwnText, targetSelector);
+    }
+
+    public AnchorQuery(String anchorTagName, String anchorOwnText, String targetSelector)
+    {
+        this(anchorTagName, anchorOwnText, targetSelector, AnchorSearchMode.NORMAL);
+    }
+
+    public AnchorQuery(String anchorTagName, String anchorOwnText, String targetSelector, AnchorSearchMode searchMode)
+    {
+        this.anchorTagName = anchorTagName;
+        this.anchorOwnText = anchorOwnText;
+        this.targetSelector = targetSelector;
+        this.searchMode = searchMode;
+        indexIfMultipleFound = -1;
+        maxRadius = ClosestElementSearch.UNBOUNDED;
+    }
+
+    public AnchorQuery(ElementInfo anchorElementInfo, String targetSelector)
+    {
+        this(anchorElementInfo.tagName, anchorElementInfo.ownText, targetSelector, AnchorSearchMode.EXACT_MATCH);
+        ignoreCase = anchorElementInfo.condition.whereIgnoreCaseForOwnText;
+        containingOnly = anchorElementInfo.condition.whereOwnTextContainingPattern;
+        indexIfMultipleFound = anchorElementInfo.indexIfMultipleFound;
+    }
+
+    String getAnchorOwnTextPattern()
+    {
+        return anchorOwnText == null ? "" : anchorOwnText.trim();
+    }
+
+    boolean isExactMatchAllowed()
+    {
+        return !containingOnly;
+    }
+
+    boolean isContainingAllowed()
+    {
+        return containingOnly || searchMode != AnchorSearchMode.EXACT_MATCH;
+    }
+
+    boolean isBestEffort()
+    {
+        return searchMode == AnchorSearchMode.BEST_EFFORT;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s[%s] -> %s", anchorTagName == null ? "*" : anchorTagName, anchorOwnText, targetSelector);
+    }
+}
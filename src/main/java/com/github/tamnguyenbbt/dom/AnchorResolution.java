@@ -0,0 +1,79 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Element;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one {@link AnchorQuery} of a batch. A failing entry is reported here instead of failing the whole batch
+ */
+public class AnchorResolution
+{
+    public enum Status
+    {
+        FOUND,
+        NO_ANCHOR_ELEMENT_FOUND,
+        NO_ELEMENT_FOUND,
+        /**
+         * Multiple anchors found by a non best effort query, what AmbiguousAnchorElementsException reports
+         */
+        AMBIGUOUS_ANCHOR_ELEMENTS,
+        /**
+         * Multiple anchors found and indexIfMultipleFound is out of their bound,
+         * what AnchorIndexIfMultipleFoundOutOfBoundException reports
+         */
+        ANCHOR_INDEX_IF_MULTIPLE_FOUND_OUT_OF_BOUND
+    }
+
+    private final AnchorQuery query;
+    private final Status status;
+    private final List<Element> anchorElements;
+    private final List<Element> elements;
+
+    AnchorResolution(AnchorQuery query, Status status, List<Element> anchorElements, List<Element> elements)
+    {
+        this.query = query;
+        this.status = status;
+        this.anchorElements = Collections.unmodifiableList(anchorElements);
+        this.elements = Collections.unmodifiableList(elements);
+    }
+
+    public AnchorQuery getQuery()
+    {
+        return query;
+    }
+
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    public boolean isFound()
+    {
+        return status == Status.FOUND;
+    }
+
+    /**
+     * The anchors used to find the elements
+     */
+    public List<Element> getAnchorElements()
+    {
+        return anchorElements;
+    }
+
+    /**
+     * The elements matching the target selector closest to the anchors, in document order
+     */
+    public List<Element> getElements()
+    {
+        return elements;
+    }
+
+    /**
+     * The first closest element or null if none is found
+     */
+    public Element getElement()
+    {
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.tamnguyenbbt.dom;
+
+/**
+ * The three overload flavours of DomUtil: ExactMatch, normal and BestEffort
+ */
+public enum AnchorSearchMode
+{
+    /**
+     * Own text equals the anchor text after trimming, case sensitive
+     */
+    EXACT_MATCH,
+
+    /**
+     * Exact match first and if no anchor is found, own text containing the anchor text. Multiple anchors are ambiguous
+     */
+    NORMAL,
+
+    /**
+     * Same as NORMAL but multiple anchors are all used to find the closest elements
+     */
+    BEST_EFFORT
+}
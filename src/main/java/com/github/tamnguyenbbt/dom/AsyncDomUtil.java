@@ -0,0 +1,157 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Non blocking counterparts of the DomUtil lookups, so that locator computation can overlap driver I/O, i.e.
+ * computing the xpaths of the next page while the browser is still navigating.
+ * Searches over a Document run on the CPU executor, calls that talk to the driver run on the I/O executor so that a
+ * slow remote driver never holds a CPU worker: getWebElement reads the page source on the I/O executor, builds the
+ * xpath on the CPU executor and finds the element on the I/O executor again. The exceptions DomUtil throws complete
+ * the future exceptionally.
+ * A WebDriver is not thread safe: calls for the same driver should be chained rather than run concurrently.
+ * Close it to shut down the I/O pool the default constructor creates, executors passed in are left to their owner.
+ */
+public class AsyncDomUtil implements AutoCloseable
+{
+    private interface Call<T>
+    {
+        T call() throws Exception;
+    }
+
+    private final DomUtil domUtil;
+    private final Executor cpuExecutor;
+    private final Executor ioExecutor;
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * Searches on the common ForkJoinPool and driver calls on a cached pool of daemon threads, shut down by
+     * {@link #close()}
+     */
+    public AsyncDomUtil()
+    {
+        this(new DomUtil(), ForkJoinPool.commonPool(), newDaemonCachedThreadPool(), true);
+    }
+
+    public AsyncDomUtil(DomUtil domUtil, Executor cpuExecutor, Executor ioExecutor)
+    {
+        this(domUtil, cpuExecutor, ioExecutor, false);
+    }
+
+    private AsyncDomUtil(DomUtil domUtil, Executor cpuExecutor, Executor ioExecutor, boolean ownedIoExecutor)
+    {
+        this.domUtil = domUtil;
+        this.cpuExecutor = cpuExecutor;
+        this.ioExecutor = ioExecutor;
+        ownedExecutor = ownedIoExecutor ? (ExecutorService) ioExecutor : null;
+    }
+
+    public CompletableFuture<Document> getActiveDocument(WebDriver driver)
+    {
+        return supply(() -> domUtil.getActiveDocument(driver), ioExecutor);
+    }
+
+    public CompletableFuture<List<Element>> getElements(Document document, String anchorElementOwnText, String searchCssQuery)
+    {
+        return supply(() -> domUtil.getElements(document, anchorElementOwnText, searchCssQuery), cpuExecutor);
+    }
+
+    public CompletableFuture<List<Element>> getElements(Document document, String anchorElementTagName, String anchorElementOwnText,
+                                                        String searchCssQuery)
+    {
+        return supply(() -> domUtil.getElements(document, anchorElementTagName, anchorElementOwnText, searchCssQuery), cpuExecutor);
+    }
+
+    public CompletableFuture<String> getXpath(Document document, String anchorElementOwnText, String searchCssQuery)
+    {
+        return supply(() -> domUtil.getXpath(document, anchorElementOwnText, searchCssQuery), cpuExecutor);
+    }
+
+    public CompletableFuture<String> getXpath(Document document, String anchorElementTagName, String anchorElementOwnText,
+                                              String searchCssQuery)
+    {
+        return supply(() -> domUtil.getXpath(document, anchorElementTagName, anchorElementOwnText, searchCssQuery), cpuExecutor);
+    }
+
+    /**
+     * The xpath of the element on the page the document future completes with, i.e. the future of
+     * {@link #getActiveDocument(WebDriver)} taken while navigating
+     */
+    public CompletableFuture<String> getXpath(CompletableFuture<Document> document, String anchorElementOwnText, String searchCssQuery)
+    {
+        return document.thenCompose(loaded -> getXpath(loaded, anchorElementOwnText, searchCssQuery));
+    }
+
+    public CompletableFuture<String> getXpath(CompletableFuture<Document> document, String anchorElementTagName,
+                                              String anchorElementOwnText, String searchCssQuery)
+    {
+        return document.thenCompose(loaded -> getXpath(loaded, anchorElementTagName, anchorElementOwnText, searchCssQuery));
+    }
+
+    public CompletableFuture<WebElement> getWebElement(WebDriver driver, String anchorElementOwnText, String searchCssQuery)
+    {
+        return findElement(driver, getXpath(getActiveDocument(driver), anchorElementOwnText, searchCssQuery));
+    }
+
+    public CompletableFuture<WebElement> getWebElement(WebDriver driver, String anchorElementTagName, String anchorElementOwnText,
+                                                       String searchCssQuery)
+    {
+        return findElement(driver, getXpath(getActiveDocument(driver), anchorElementTagName, anchorElementOwnText, searchCssQuery));
+    }
+
+    /**
+     * Shuts down the I/O pool of the default constructor, letting the calls already submitted finish
+     */
+    @Override
+    public void close()
+    {
+        if (ownedExecutor != null)
+        {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private CompletableFuture<WebElement> findElement(WebDriver driver, CompletableFuture<String> xpath)
+    {
+        return xpath.thenCompose(found -> supply(() -> driver.findElement(By.xpath(found)), ioExecutor));
+    }
+
+    private static <T> CompletableFuture<T> supply(Call<T> call, Executor executor)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        executor.execute(() ->
+        {
+            try
+            {
+                future.complete(call.call());
+            }
+            catch (Throwable e)
+            {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    private static ExecutorService newDaemonCachedThreadPool()
+    {
+        return Executors.newCachedThreadPool(runnable ->
+        {
+            Thread thread = new Thread(runnable, "async-dom-util-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,314 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Loads every saved page of a directory tree on a bounded thread pool and hands each Document to a consumer as soon
+ * as it is parsed, in completion order.
+ * Html files (.html, .htm) are loaded by {@link HtmlFileLoader}, gzipped ones (.html.gz, .htm.gz) and the html
+ * entries of zip archives are decompressed once into an array sized from the length the archive records. A page holds
+ * an in-flight permit from the moment it is read until the consumer returns, so no more than maxInFlight Documents are
+ * resident at once however large the archive: the directory walk waits for a permit before reading the next page.
+ * The consumer is called by one thread at a time and does not need to be thread safe.
+ */
+public class BulkHtmlLoader
+{
+    public interface DocumentConsumer
+    {
+        /**
+         * @param source path of the file, or archive path!/entry name for an entry of a zip archive
+         */
+        void accept(String source, Document document) throws Exception;
+    }
+
+    private interface PageReader
+    {
+        Document read() throws Exception;
+    }
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+    //deflate cannot expand data more than about 1032 times, a larger recorded length is corrupt
+    private static final long MAX_DEFLATE_RATIO = 1032;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final HtmlFileLoader htmlFileLoader;
+    private final int threadCount;
+    private final int maxInFlight;
+    private final boolean includeArchives;
+
+    public BulkHtmlLoader()
+    {
+        this(new HtmlFileLoader(), Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_IN_FLIGHT, true);
+    }
+
+    /**
+     * @param threadCount number of threads reading pages, at least one
+     * @param maxInFlight maximum number of pages read but not yet consumed, at least one
+     * @param includeArchives whether gzipped files and zip archives are loaded too
+     */
+    public BulkHtmlLoader(HtmlFileLoader htmlFileLoader, int threadCount, int maxInFlight, boolean includeArchives)
+    {
+        this.htmlFileLoader = htmlFileLoader;
+        this.threadCount = Math.max(threadCount, 1);
+        this.maxInFlight = Math.max(maxInFlight, 1);
+        this.includeArchives = includeArchives;
+    }
+
+    /**
+     * Loads every page below the directory, returning once all of them are consumed
+     * @return the pages that failed to load or to be consumed, by source, with the reason
+     */
+    public Map<String, Exception> load(Path directory, DocumentConsumer consumer) throws IOException, InterruptedException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Map<String, Exception> failures = new ConcurrentHashMap<>();
+        Object consumerLock = new Object();
+        List<Path> files;
+
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        try
+        {
+            for (Path file : files)
+            {
+                String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+
+                if (isHtml(name))
+                {
+                    submit(executor, inFlight, failures, file.toString(), () -> htmlFileLoader.load(file), consumer, consumerLock, null);
+                }
+                else if (includeArchives && name.endsWith(".gz") && isHtml(name.substring(0, name.length() - 3)))
+                {
+                    submit(executor, inFlight, failures, file.toString(), () -> parseGzip(file), consumer, consumerLock, null);
+                }
+                else if (includeArchives && name.endsWith(".zip"))
+                {
+                    submitZipEntries(executor, inFlight, failures, file, consumer, consumerLock);
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        return Collections.unmodifiableMap(new TreeMap<>(failures));
+    }
+
+    private void submitZipEntries(ExecutorService executor, Semaphore inFlight, Map<String, Exception> failures, Path file,
+                                  DocumentConsumer consumer, Object consumerLock) throws InterruptedException
+    {
+        ZipFile zipFile;
+
+        try
+        {
+            zipFile = new ZipFile(file.toFile());
+        }
+        catch (IOException e)
+        {
+            failures.put(file.toString(), e);
+            return;
+        }
+
+        //the walk holds one reference until every entry is submitted, the last task to finish closes the archive
+        AtomicInteger references = new AtomicInteger(1);
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+
+        try
+        {
+            while (entries.hasMoreElements())
+            {
+                ZipEntry entry = entries.nextElement();
+
+                if (!entry.isDirectory() && isHtml(entry.getName().toLowerCase(Locale.ROOT)))
+                {
+                    references.incrementAndGet();
+                    String source = file + "!/" + entry.getName();
+                    submit(executor, inFlight, failures, source, () -> parse(zipFile.getInputStream(entry), getLength(entry), source),
+                            consumer, consumerLock, () -> release(zipFile, references));
+                }
+            }
+        }
+        finally
+        {
+            release(zipFile, references);
+        }
+    }
+
+    private static void submit(ExecutorService executor, Semaphore inFlight, Map<String, Exception> failures, String source,
+                               PageReader reader, DocumentConsumer consumer, Object consumerLock, Runnable onDone)
+            throws InterruptedException
+    {
+        inFlight.acquire();
+
+        try
+        {
+            executor.execute(() ->
+            {
+                try
+                {
+                    Document document = reader.read();
+
+                    synchronized (consumerLock)
+                    {
+                        consumer.accept(source, document);
+                    }
+                }
+                catch (Exception e)
+                {
+                    failures.put(source, e);
+                }
+                finally
+                {
+                    done(inFlight, onDone);
+                }
+            });
+        }
+        catch (RuntimeException e)
+        {
+            done(inFlight, onDone);
+            throw e;
+        }
+    }
+
+    private static void done(Semaphore inFlight, Runnable onDone)
+    {
+        inFlight.release();
+
+        if (onDone != null)
+        {
+            onDone.run();
+        }
+    }
+
+    private Document parseGzip(Path file) throws IOException
+    {
+        long expectedLength = getGzipLength(file);
+        InputStream input = Files.newInputStream(file);
+        GZIPInputStream gzipInput;
+
+        try
+        {
+            gzipInput = new GZIPInputStream(input, 1 << 16);
+        }
+        catch (IOException e)
+        {
+            //not a gzip file, the header is read by the constructor
+            input.close();
+            throw e;
+        }
+
+        return parse(gzipInput, expectedLength, file.toString());
+    }
+
+    /**
+     * Reads the stream into one array, grown only when the expected length is wrong, and parses it without a copy
+     * @param expectedLength decompressed length recorded by the archive, or -1 when unknown
+     */
+    private Document parse(InputStream input, long expectedLength, String source) throws IOException
+    {
+        try (InputStream stream = input)
+        {
+            //one byte more than expected so that the end of the stream is read without growing the array
+            byte[] bytes = new byte[expectedLength >= 0 && expectedLength < MAX_ARRAY_LENGTH ? (int) expectedLength + 1 : 1 << 16];
+            int length = 0;
+
+            for (int count = stream.read(bytes); count >= 0; count = stream.read(bytes, length, bytes.length - length))
+            {
+                length += count;
+
+                if (length == bytes.length)
+                {
+                    if (length == MAX_ARRAY_LENGTH)
+                    {
+                        throw new IOException(source + " is too large to be parsed");
+                    }
+
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(2L * length, MAX_ARRAY_LENGTH));
+                }
+            }
+
+            return htmlFileLoader.parse(ByteBuffer.wrap(bytes, 0, length), source);
+        }
+    }
+
+    private static long getLength(ZipEntry entry)
+    {
+        long compressedLength = entry.getCompressedSize();
+        return compressedLength >= 0 && entry.getSize() > compressedLength * MAX_DEFLATE_RATIO ? -1 : entry.getSize();
+    }
+
+    /**
+     * Decompressed length modulo 2^32 from the gzip trailer, right for any page small enough to be parsed
+     */
+    private static long getGzipLength(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+
+            while (trailer.hasRemaining() && channel.size() >= 4)
+            {
+                if (channel.read(trailer, channel.size() - 4 + trailer.position()) < 0)
+                {
+                    return -1;
+                }
+            }
+
+            long length = trailer.hasRemaining() ? -1 : trailer.getInt(0) & 0xffffffffL;
+            return length > channel.size() * MAX_DEFLATE_RATIO ? -1 : length;
+        }
+    }
+
+    private static void release(ZipFile zipFile, AtomicInteger references)
+    {
+        if (references.decrementAndGet() == 0)
+        {
+            try
+            {
+                zipFile.close();
+            }
+            catch (IOException e)
+            {
+                //nothing is read from the archive anymore
+            }
+        }
+    }
+
+    private static boolean isHtml(String name)
+    {
+        return name.endsWith(".html") || name.endsWith(".htm");
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the elements matching a target selector closest to an anchor by expanding outward from the anchor:
+ * the anchor subtree first, then the parent and its other subtrees, then the grandparent and so on.
+ * The search stops as soon as no unvisited element can be closer than the closest match found, or when the optional
+ * max radius (in tree distance) is reached, so only the neighbourhood of the anchor is visited.
+ * The tree is walked through the {@link FlatDom} of the {@link DomIndex} of the Document, elements are only read to
+ * match the selector. Anchors that are not part of the Document are skipped.
+ */
+public class ClosestElementSearch
+{
+    public static final int UNBOUNDED = -1;
+
+    private final Document document;
+    private final int maxRadius;
+
+    public ClosestElementSearch(Document document)
+    {
+        this(document, UNBOUNDED);
+    }
+
+    public ClosestElementSearch(Document document, int maxRadius)
+    {
+        this.document = document;
+        this.maxRadius = maxRadius;
+    }
+
+    public List<Element> getClosestElements(Element anchor, String targetSelector)
+    {
+        return getClosestElements(Collections.singletonList(anchor), targetSelector);
+    }
+
+    /**
+     * Elements closest to any of the anchors, in document order
+     */
+    public List<Element> getClosestElements(List<Element> anchors, String targetSelector)
+    {
+        FlatDom flatDom = DomIndex.of(document).getFlatDom();
+        Closest closest = new Closest(flatDom, QueryParser.parse(targetSelector), maxRadius == UNBOUNDED ? Integer.MAX_VALUE : maxRadius);
+
+        for (Element anchor : anchors)
+        {
+            int anchorId = flatDom.getId(anchor);
+
+            if (anchorId != FlatDom.NONE)
+            {
+                search(flatDom, anchorId, closest);
+            }
+        }
+
+        //ids are numbered in document order
+        List<Element> found = new ArrayList<>(closest.ids.cardinality());
+
+        for (int id = closest.ids.nextSetBit(0); id >= 0; id = closest.ids.nextSetBit(id + 1))
+        {
+            found.add(flatDom.getElement(id));
+        }
+
+        return found;
+    }
+
+    private void search(FlatDom flatDom, int anchor, Closest closest)
+    {
+        searchSubtree(flatDom, anchor, 0, closest);
+        int visited = anchor;
+        int ancestor = flatDom.getParent(anchor);
+        int level = 1;
+
+        //every element reached from this level on is at least 'level' away from the anchor
+        while (ancestor != FlatDom.NONE && level <= closest.bound)
+        {
+            closest.offer(ancestor, level);
+
+            for (int child = flatDom.getFirstChild(ancestor); child != FlatDom.NONE; child = flatDom.getNextSibling(child))
+            {
+                if (child != visited)
+                {
+                    searchSubtree(flatDom, child, level + 1, closest);
+                }
+            }
+
+            visited = ancestor;
+            ancestor = flatDom.getParent(ancestor);
+            level++;
+        }
+    }
+
+    private void searchSubtree(FlatDom flatDom, int root, int distance, Closest closest)
+    {
+        FlatDom.IntList current = new FlatDom.IntList();
+        FlatDom.IntList next = new FlatDom.IntList();
+        current.add(root);
+
+        while (current.size() > 0 && distance <= closest.bound)
+        {
+            for (int i = 0; i < current.size(); i++)
+            {
+                int id = current.get(i);
+                closest.offer(id, distance);
+
+                for (int child = flatDom.getFirstChild(id); child != FlatDom.NONE; child = flatDom.getNextSibling(child))
+                {
+                    next.add(child);
+                }
+            }
+
+            FlatDom.IntList visited = current;
+            current = next;
+            next = visited;
+            next.clear();
+            distance++;
+        }
+    }
+
+    private class Closest
+    {
+        private final FlatDom flatDom;
+        private final Evaluator evaluator;
+        private final BitSet ids = new BitSet();
+        private int bound;
+
+        Closest(FlatDom flatDom, Evaluator evaluator, int bound)
+        {
+            this.flatDom = flatDom;
+            this.evaluator = evaluator;
+            this.bound = bound;
+        }
+
+        void offer(int id, int distance)
+        {
+            if (distance > bound || !evaluator.matches(document, flatDom.getElement(id)))
+            {
+                return;
+            }
+
+            if (distance < bound || ids.isEmpty())
+            {
+                ids.clear();
+                bound = distance;
+            }
+
+            ids.set(id);
+        }
+    }
+}
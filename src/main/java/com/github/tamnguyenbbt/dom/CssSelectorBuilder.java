@@ -0,0 +1,81 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import java.util.List;
+
+/**
+ * Builds a css selector uniquely locating an element from its tag name and attributes, prefixed with its parents
+ * (child combinator) when the element alone is not unique. The attributes are the ones the xpaths use as predicates.
+ */
+public class CssSelectorBuilder
+{
+    public static final int DEFAULT_MAX_ANCESTORS = 5;
+
+    private final List<String> attributeNames;
+    private final int maxAncestors;
+
+    public CssSelectorBuilder()
+    {
+        this(XpathBuilder.DEFAULT_ATTRIBUTE_NAMES, DEFAULT_MAX_ANCESTORS);
+    }
+
+    public CssSelectorBuilder(List<String> attributeNames, int maxAncestors)
+    {
+        this.attributeNames = attributeNames;
+        this.maxAncestors = maxAncestors;
+    }
+
+    /**
+     * A css selector matching only the element in its document, or null if there is none without text
+     */
+    public String build(Element element)
+    {
+        Document document = element.ownerDocument();
+
+        if (document == null)
+        {
+            return null;
+        }
+
+        StringBuilder selector = new StringBuilder();
+        appendStep(selector, element);
+        Element ancestor = element.parent();
+
+        for (int level = 0; ; level++)
+        {
+            List<Element> found = document.select(selector.toString());
+
+            if (found.size() == 1 && found.get(0) == element)
+            {
+                return selector.toString();
+            }
+
+            if (level == maxAncestors || ancestor == null || ancestor == document)
+            {
+                return null;
+            }
+
+            StringBuilder step = new StringBuilder();
+            appendStep(step, ancestor);
+            selector.insert(0, step.append(" > "));
+            ancestor = ancestor.parent();
+        }
+    }
+
+    private void appendStep(StringBuilder selector, Element element)
+    {
+        selector.append(element.tagName());
+
+        for (String attributeName : attributeNames)
+        {
+            String value = element.attr(attributeName);
+
+            //values a css string cannot hold without escaping are left out
+            if (element.hasAttr(attributeName) && value.indexOf('"') < 0 && value.indexOf('\\') < 0 && value.indexOf('\n') < 0)
+            {
+                selector.append('[').append(attributeName).append("=\"").append(value).append("\"]");
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.tamnguyenbbt.dom;
+
+import com.github.tamnguyenbbt.exception.AmbiguousAnchorElementsException;
+import com.github.tamnguyenbbt.exception.AmbiguousFoundXpathsException;
+import com.github.tamnguyenbbt.exception.AnchorIndexIfMultipleFoundOutOfBoundException;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Css selector counterparts of the DomUtil getXpath and getXpaths overloads, ExactMatch, BestEffort and ElementInfo
+ * ones included.
+ * The anchor search is done once by DomUtil, each found xpath is resolved to its element in memory and replaced by a
+ * css selector made of tag names and attributes that matches only that element in the Document, when one exists. The
+ * selector no longer refers to the anchor: it locates the same element on this page, not the element next to the
+ * label wherever the label moves. Browsers evaluate css selectors natively, xpaths are kept only for elements that
+ * cannot be located without text predicates.
+ * The getCssSelectors lists line up with the getXpaths ones, position for position, an element without a css
+ * selector being a null entry; use getLocators to get its xpath instead.
+ */
+public class CssSelectorUtil
+{
+    private final DomUtil domUtil;
+    private final CssSelectorBuilder cssSelectorBuilder;
+
+    public CssSelectorUtil()
+    {
+        this(new DomUtil(), new CssSelectorBuilder());
+    }
+
+    public CssSelectorUtil(DomUtil domUtil, CssSelectorBuilder cssSelectorBuilder)
+    {
+        this.domUtil = domUtil;
+        this.cssSelectorBuilder = cssSelectorBuilder;
+    }
+
+    /**
+     * The css selector of the element getXpath finds, or null if not found or it cannot be located without text
+     */
+    public String getCssSelector(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        return toCssSelector(document, domUtil.getXpath(document, anchorElementOwnText, searchCssQuery));
+    }
+
+    public String getCssSelector(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        return toCssSelector(document, domUtil.getXpath(document, anchorElementTagName, anchorElementOwnText, searchCssQuery));
+    }
+
+    public String getCssSelectorExactMatch(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        return toCssSelector(document, domUtil.getXpathExactMatch(document, anchorElementOwnText, searchCssQuery));
+    }
+
+    public String getCssSelectorExactMatch(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        return toCssSelector(document, domUtil.getXpathExactMatch(document, anchorElementTagName, anchorElementOwnText, searchCssQuery));
+    }
+
+    public String getCssSelectorBestEffort(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousFoundXpathsException
+    {
+        return toCssSelector(document, domUtil.getXpathBestEffort(document, anchorElementOwnText, searchCssQuery));
+    }
+
+    public String getCssSelectorBestEffort(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousFoundXpathsException
+    {
+        return toCssSelector(document, domUtil.getXpathBestEffort(document, anchorElementTagName, anchorElementOwnText, searchCssQuery));
+    }
+
+    public String getCssSelector(Document document, ElementInfo anchorElementInfo, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException, AnchorIndexIfMultipleFoundOutOfBoundException
+    {
+        return toCssSelector(document, domUtil.getXpath(document, anchorElementInfo, searchCssQuery));
+    }
+
+    /**
+     * The css selectors of the elements getXpaths finds, in the same positions, null for the ones that cannot be
+     * located without text
+     */
+    public List<String> getCssSelectors(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        return toCssSelectors(getLocators(document, domUtil.getXpaths(document, anchorElementOwnText, searchCssQuery)));
+    }
+
+    public List<String> getCssSelectors(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        List<String> xpaths = domUtil.getXpaths(document, anchorElementTagName, anchorElementOwnText, searchCssQuery);
+        return toCssSelectors(getLocators(document, xpaths));
+    }
+
+    public List<String> getCssSelectorsExactMatch(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        return toCssSelectors(getLocators(document, domUtil.getXpathsExactMatch(document, anchorElementOwnText, searchCssQuery)));
+    }
+
+    public List<String> getCssSelectorsExactMatch(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        List<String> xpaths = domUtil.getXpathsExactMatch(document, anchorElementTagName, anchorElementOwnText, searchCssQuery);
+        return toCssSelectors(getLocators(document, xpaths));
+    }
+
+    public List<String> getCssSelectorsBestEffort(Document document, String anchorElementOwnText, String searchCssQuery)
+    {
+        return toCssSelectors(getLocators(document, domUtil.getXpathsBestEffort(document, anchorElementOwnText, searchCssQuery)));
+    }
+
+    public List<String> getCssSelectorsBestEffort(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+    {
+        List<String> xpaths = domUtil.getXpathsBestEffort(document, anchorElementTagName, anchorElementOwnText, searchCssQuery);
+        return toCssSelectors(getLocators(document, xpaths));
+    }
+
+    public List<String> getCssSelectors(Document document, ElementInfo anchorElementInfo, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AnchorIndexIfMultipleFoundOutOfBoundException
+    {
+        return toCssSelectors(getLocators(document, domUtil.getXpaths(document, anchorElementInfo, searchCssQuery)));
+    }
+
+    /**
+     * The locator of the element getXpath finds: its css selector, or its xpath when it needs text predicates
+     */
+    public Locator getLocator(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        return toLocator(document, domUtil.getXpath(document, anchorElementOwnText, searchCssQuery));
+    }
+
+    public Locator getLocator(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        return toLocator(document, domUtil.getXpath(document, anchorElementTagName, anchorElementOwnText, searchCssQuery));
+    }
+
+    public List<Locator> getLocators(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        return getLocators(document, domUtil.getXpaths(document, anchorElementOwnText, searchCssQuery));
+    }
+
+    public List<Locator> getLocators(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        return getLocators(document, domUtil.getXpaths(document, anchorElementTagName, anchorElementOwnText, searchCssQuery));
+    }
+
+    private List<Locator> getLocators(Document document, List<String> xpaths)
+    {
+        List<Locator> locators = new ArrayList<>();
+
+        if (xpaths != null)
+        {
+            for (String xpath : xpaths)
+            {
+                locators.add(toLocator(document, xpath));
+            }
+        }
+
+        return locators;
+    }
+
+    private Locator toLocator(Document document, String xpath)
+    {
+        if (xpath == null)
+        {
+            return null;
+        }
+
+        String cssSelector = toCssSelector(document, xpath);
+        return cssSelector == null ? new Locator(Locator.Type.XPATH, xpath) : new Locator(Locator.Type.CSS_SELECTOR, cssSelector);
+    }
+
+    private String toCssSelector(Document document, String xpath)
+    {
+        if (xpath == null)
+        {
+            return null;
+        }
+
+        List<Element> found = XpathEvaluator.select(document, xpath);
+        return found.size() == 1 ? cssSelectorBuilder.build(found.get(0)) : null;
+    }
+
+    private static List<String> toCssSelectors(List<Locator> locators)
+    {
+        List<String> cssSelectors = new ArrayList<>();
+
+        for (Locator locator : locators)
+        {
+            cssSelectors.add(locator != null && locator.getType() == Locator.Type.CSS_SELECTOR ? locator.getValue() : null);
+        }
+
+        return cssSelectors;
+    }
+}
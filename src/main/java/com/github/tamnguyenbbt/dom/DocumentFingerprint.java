@@ -0,0 +1,161 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 64-bit structural hash of a Document: tag names, attributes and own texts of all elements plus their nesting.
+ * Every name, value and text is hashed after its length, so that the end of one cannot be read as the start of the next.
+ * Two parses of an unchanged page have the same fingerprint, so it can key caches of results computed from a page;
+ * the number of nodes, counted in the same traversal, lets such caches check a hit beyond the hash.
+ * The fingerprint is computed once per Document, call {@link #invalidate(Document)} after mutating the Document.
+ */
+public class DocumentFingerprint
+{
+    private static final Map<Document, DocumentFingerprint> fingerprints = new WeakHashMap<>();
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final Object END_OF_ELEMENT = new Object();
+
+    private long hash = OFFSET_BASIS;
+    private int nodeCount;
+
+    private DocumentFingerprint()
+    {
+    }
+
+    /**
+     * Returns the cached fingerprint of the document, computing it on first use
+     */
+    public static long of(Document document)
+    {
+        return get(document).hash;
+    }
+
+    /**
+     * The cached fingerprint of the document with its node count
+     */
+    static DocumentFingerprint get(Document document)
+    {
+        synchronized (fingerprints)
+        {
+            DocumentFingerprint fingerprint = fingerprints.get(document);
+
+            if (fingerprint != null)
+            {
+                return fingerprint;
+            }
+        }
+
+        DocumentFingerprint fingerprint = compute(document);
+
+        synchronized (fingerprints)
+        {
+            fingerprints.put(document, fingerprint);
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Drops the cached fingerprint of the document so that the next {@link #of(Document)} computes it again
+     */
+    public static void invalidate(Document document)
+    {
+        synchronized (fingerprints)
+        {
+            fingerprints.remove(document);
+        }
+    }
+
+    long getHash()
+    {
+        return hash;
+    }
+
+    /**
+     * Number of nodes of the document, text and comment nodes included, when the fingerprint was computed
+     */
+    int getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    private static DocumentFingerprint compute(Document document)
+    {
+        DocumentFingerprint fingerprint = new DocumentFingerprint();
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(document);
+        fingerprint.nodeCount = 1;
+
+        while (!stack.isEmpty())
+        {
+            Object item = stack.pop();
+
+            if (item == END_OF_ELEMENT)
+            {
+                fingerprint.add(')');
+                continue;
+            }
+
+            Element element = (Element) item;
+            fingerprint.add(element);
+            stack.push(END_OF_ELEMENT);
+            List<Node> children = element.childNodes();
+            fingerprint.nodeCount += children.size();
+
+            for (int i = children.size() - 1; i >= 0; i--)
+            {
+                if (children.get(i) instanceof Element)
+                {
+                    stack.push(children.get(i));
+                }
+            }
+        }
+
+        return fingerprint;
+    }
+
+    private void add(Element element)
+    {
+        add('(');
+        add(element.tagName());
+
+        for (Attribute attribute : element.attributes())
+        {
+            add('@');
+            add(attribute.getKey());
+            add(attribute.getValue());
+        }
+
+        add('#');
+        add(element.ownText());
+    }
+
+    /**
+     * Adds the length of the value before its characters, so that a value cannot run into the next field
+     */
+    private void add(String value)
+    {
+        add((char) (value.length() >>> 16));
+        add((char) value.length());
+
+        for (int i = 0; i < value.length(); i++)
+        {
+            add(value.charAt(i));
+        }
+    }
+
+    private void add(char value)
+    {
+        hash = (hash ^ (value & 0xff)) * PRIME;
+        hash = (hash ^ (value >>> 8)) * PRIME;
+    }
+}
@@ -0,0 +1,475 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Own text index of a jsoup Document, built once and reused for anchor lookups.
+ * Exact own text lookups are hash probes and containing lookups go through a trigram index over the distinct
+ * case-folded own texts of the page instead of walking the whole Document.
+ * Elements are also partitioned by tag name so that tag name anchored lookups and bare tag name target selectors
+ * only touch elements of that tag.
+ * {@link #of(Document)} checks the cached index against the child counts of the indexed elements, so an element added
+ * or removed anywhere rebuilds it, and a query on an index that finds one of its elements removed answers from the
+ * rebuilt index. Call {@link #invalidate(Document)} after edits keeping the child counts, i.e. after changing a text.
+ */
+public class DomIndex
+{
+    private static final Map<Document, DomIndex> indexes = new WeakHashMap<>();
+    private static final Pattern TAG_NAME = Pattern.compile("[a-zA-Z][a-zA-Z0-9-]*");
+
+    private final Document document;
+    private final List<Element> elements;
+    private final Map<Element, Integer> positions;
+    private final Map<String, List<Element>> elementsByTagName;
+    private final Map<String, List<Element>> elementsByOwnText;
+    private final List<NormalizedText> normalizedOwnTexts;
+    private final List<NormalizedText> distinctOwnTexts;
+    private final Map<String, List<String>> ownTextsByFoldedText;
+    private final int[] childNodeSizes;
+    private TrigramIndex trigramIndex;
+    private LowestCommonAncestor lowestCommonAncestor;
+    private FlatDom flatDom;
+
+    public DomIndex(Document document)
+    {
+        this(document, null, null);
+    }
+
+    /**
+     * Index of a Document read back by {@link ParseCache} from its elements in document order and the trimmed own
+     * texts stored with them, or built by walking the Document when they are null
+     */
+    DomIndex(Document document, List<Element> storedElements, List<String> storedOwnTexts)
+    {
+        this.document = document;
+        elements = new ArrayList<>();
+        positions = new IdentityHashMap<>();
+        elementsByTagName = new HashMap<>();
+        elementsByOwnText = new HashMap<>();
+        normalizedOwnTexts = new ArrayList<>();
+        distinctOwnTexts = new ArrayList<>();
+        ownTextsByFoldedText = new HashMap<>();
+
+        if (storedElements == null)
+        {
+            build();
+        }
+        else
+        {
+            for (int i = 0; i < storedElements.size(); i++)
+            {
+                String ownText = storedOwnTexts.get(i);
+                add(storedElements.get(i), ownText.isEmpty() ? NormalizedText.EMPTY : new NormalizedText(ownText));
+            }
+        }
+
+        childNodeSizes = new int[elements.size()];
+
+        for (int i = 0; i < childNodeSizes.length; i++)
+        {
+            childNodeSizes[i] = elements.get(i).childNodeSize();
+        }
+    }
+
+    /**
+     * Returns the cached index of the document, building it on first use and again after elements were added or removed
+     */
+    public static DomIndex of(Document document)
+    {
+        synchronized (indexes)
+        {
+            DomIndex index = indexes.get(document);
+
+            if (index == null || index.isStale())
+            {
+                if (index != null)
+                {
+                    DocumentFingerprint.invalidate(document);
+                }
+
+                index = new DomIndex(document);
+                indexes.put(document, index);
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Caches an index built without walking its Document, i.e. one read back by {@link ParseCache}
+     */
+    static void register(DomIndex index)
+    {
+        synchronized (indexes)
+        {
+            indexes.put(index.document, index);
+        }
+    }
+
+    /**
+     * Drops the cached index and {@link DocumentFingerprint} of the document so that the next {@link #of(Document)}
+     * rebuilds it
+     */
+    public static void invalidate(Document document)
+    {
+        synchronized (indexes)
+        {
+            indexes.remove(document);
+        }
+
+        DocumentFingerprint.invalidate(document);
+    }
+
+    public Document getDocument()
+    {
+        return document;
+    }
+
+    /**
+     * All elements of the document in document order
+     */
+    public List<Element> getElements()
+    {
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * Position of the element in document order or -1 if the element was not indexed
+     */
+    public int getPosition(Element element)
+    {
+        Integer position = positions.get(element);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Trimmed and case-folded own text of the element, computed once per indexed element
+     */
+    public NormalizedText getNormalizedOwnText(Element element)
+    {
+        Integer position = positions.get(element);
+        return position == null ? new NormalizedText(element.ownText()) : normalizedOwnTexts.get(position);
+    }
+
+    /**
+     * Elements of the tag in document order
+     */
+    public List<Element> getElementsByTagName(String tagName)
+    {
+        List<Element> found = elementsByTagName.get(tagName.toLowerCase(Locale.ROOT));
+        List<Element> result = filter(null, found == null ? Collections.<Element>emptyList() : found);
+        return result != null ? result : rebuild().getElementsByTagName(tagName);
+    }
+
+    /**
+     * Elements matching a target selector. A bare tag name such as 'input' is served from the tag partition,
+     * any other css selector is evaluated by jsoup
+     */
+    public List<Element> select(String cssQuery)
+    {
+        return isTagName(cssQuery) ? getElementsByTagName(cssQuery) : document.select(cssQuery);
+    }
+
+    static boolean isTagName(String cssQuery)
+    {
+        return cssQuery != null && TAG_NAME.matcher(cssQuery).matches();
+    }
+
+    public List<Element> getElementsMatchingOwnText(String ownText)
+    {
+        return getElementsByTagNameMatchingOwnText(null, ownText);
+    }
+
+    public List<Element> getElementsContainingOwnText(String ownText)
+    {
+        return getElementsByTagNameContainingOwnText(null, ownText);
+    }
+
+    public List<Element> getElementsByTagNameMatchingOwnText(String tagName, String ownText)
+    {
+        return getElementsByTagNameMatchingOwnText(tagName, ownText, false);
+    }
+
+    public List<Element> getElementsByTagNameContainingOwnText(String tagName, String ownText)
+    {
+        return getElementsByTagNameContainingOwnText(tagName, ownText, false);
+    }
+
+    /**
+     * Anchor elements described by the tag name, own text and the own text conditions of the element info
+     */
+    public List<Element> getElements(ElementInfo elementInfo)
+    {
+        boolean ignoreCase = elementInfo.condition.whereIgnoreCaseForOwnText;
+        return elementInfo.condition.whereOwnTextContainingPattern
+                ? getElementsByTagNameContainingOwnText(elementInfo.tagName, elementInfo.ownText, ignoreCase)
+                : getElementsByTagNameMatchingOwnText(elementInfo.tagName, elementInfo.ownText, ignoreCase);
+    }
+
+    public List<Element> getElementsByTagNameMatchingOwnText(String tagName, String ownText, boolean ignoreCase)
+    {
+        if (ownText == null)
+        {
+            return new ArrayList<>();
+        }
+
+        String key = ownText.trim();
+        List<Element> result;
+
+        if (ignoreCase)
+        {
+            List<String> sameFoldedText = ownTextsByFoldedText.get(NormalizedText.fold(key));
+            result = sameFoldedText == null ? new ArrayList<>() : collect(tagName, sameFoldedText);
+        }
+        else
+        {
+            List<Element> found = elementsByOwnText.get(key);
+            result = filter(tagName, found == null ? Collections.<Element>emptyList() : found);
+        }
+
+        return result != null ? result : rebuild().getElementsByTagNameMatchingOwnText(tagName, ownText, ignoreCase);
+    }
+
+    public List<Element> getElementsByTagNameContainingOwnText(String tagName, String ownText, boolean ignoreCase)
+    {
+        if (ownText == null)
+        {
+            return new ArrayList<>();
+        }
+
+        String pattern = ownText.trim();
+        List<Element> result;
+
+        if (tagName != null && getTagPartitionSize(tagName) < distinctOwnTexts.size())
+        {
+            result = getElementsOfTagContainingOwnText(tagName, pattern, ignoreCase);
+        }
+        else
+        {
+            List<String> containing = new ArrayList<>();
+
+            for (int id : getTrigramIndex().getIdsContaining(pattern))
+            {
+                String candidate = distinctOwnTexts.get(id).getTrimmed();
+
+                if (ignoreCase || candidate.contains(pattern))
+                {
+                    containing.add(candidate);
+                }
+            }
+
+            result = collect(tagName, containing);
+        }
+
+        return result != null ? result : rebuild().getElementsByTagNameContainingOwnText(tagName, ownText, ignoreCase);
+    }
+
+    /**
+     * Lowest common ancestor and tree distance queries over the indexed elements, built on first use
+     */
+    public synchronized LowestCommonAncestor getLowestCommonAncestor()
+    {
+        if (lowestCommonAncestor == null)
+        {
+            lowestCommonAncestor = new LowestCommonAncestor(this);
+        }
+
+        return lowestCommonAncestor;
+    }
+
+    /**
+     * Structure-of-arrays snapshot of the indexed Document, built on first use
+     */
+    public synchronized FlatDom getFlatDom()
+    {
+        if (flatDom == null)
+        {
+            flatDom = FlatDom.of(document);
+        }
+
+        return flatDom;
+    }
+
+    private int getTagPartitionSize(String tagName)
+    {
+        List<Element> found = elementsByTagName.get(tagName.toLowerCase(Locale.ROOT));
+        return found == null ? 0 : found.size();
+    }
+
+    private List<Element> getElementsOfTagContainingOwnText(String tagName, String pattern, boolean ignoreCase)
+    {
+        String foldedPattern = NormalizedText.fold(pattern);
+        List<Element> partition = elementsByTagName.get(tagName.toLowerCase(Locale.ROOT));
+        List<Element> tagged = filter(null, partition == null ? Collections.<Element>emptyList() : partition);
+        List<Element> found = new ArrayList<>();
+
+        if (tagged == null)
+        {
+            return null;
+        }
+
+        for (Element element : tagged)
+        {
+            NormalizedText normalizedOwnText = getNormalizedOwnText(element);
+
+            boolean containing = ignoreCase
+                    ? normalizedOwnText.getFolded().contains(foldedPattern)
+                    : normalizedOwnText.getTrimmed().contains(pattern);
+
+            if (containing && !normalizedOwnText.isEmpty())
+            {
+                found.add(element);
+            }
+        }
+
+        return found;
+    }
+
+    private synchronized TrigramIndex getTrigramIndex()
+    {
+        if (trigramIndex == null)
+        {
+            trigramIndex = new TrigramIndex(distinctOwnTexts);
+        }
+
+        return trigramIndex;
+    }
+
+    private List<Element> collect(String tagName, List<String> matchedOwnTexts)
+    {
+        List<Element> found = new ArrayList<>();
+
+        for (String matchedOwnText : matchedOwnTexts)
+        {
+            found.addAll(elementsByOwnText.get(matchedOwnText));
+        }
+
+        if (matchedOwnTexts.size() > 1)
+        {
+            sortInDocumentOrder(found);
+        }
+
+        return filter(tagName, found);
+    }
+
+    /**
+     * The found elements of the tag, or null if one of them was removed from the document after indexing, i.e. by
+     * removeTagsByAnyMatchedAttribute(), for the query to be answered by the rebuilt index
+     */
+    private List<Element> filter(String tagName, List<Element> found)
+    {
+        List<Element> result = new ArrayList<>();
+
+        for (Element element : found)
+        {
+            if (!isAttached(element))
+            {
+                return null;
+            }
+
+            if (tagName == null || tagName.equalsIgnoreCase(element.tagName()))
+            {
+                result.add(element);
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isAttached(Element element)
+    {
+        return element.ownerDocument() == document;
+    }
+
+    private DomIndex rebuild()
+    {
+        invalidate(document);
+        return of(document);
+    }
+
+    /**
+     * Whether an element was added to or removed from the document since indexing, which changes the child count of
+     * its parent
+     */
+    private boolean isStale()
+    {
+        for (int i = 0; i < childNodeSizes.length; i++)
+        {
+            if (elements.get(i).childNodeSize() != childNodeSizes[i])
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    void sortInDocumentOrder(List<Element> found)
+    {
+        found.sort((first, second) -> Integer.compare(positions.get(first), positions.get(second)));
+    }
+
+    private void build()
+    {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(document);
+
+        while (!stack.isEmpty())
+        {
+            Node node = stack.pop();
+
+            if (node instanceof Element)
+            {
+                Element element = (Element) node;
+                add(element, element.childNodeSize() == 0 ? NormalizedText.EMPTY : new NormalizedText(element.ownText()));
+            }
+
+            List<Node> children = node.childNodes();
+
+            for (int i = children.size() - 1; i >= 0; i--)
+            {
+                stack.push(children.get(i));
+            }
+        }
+    }
+
+    private void add(Element element, NormalizedText normalizedOwnText)
+    {
+        positions.put(element, elements.size());
+        elements.add(element);
+        elementsByTagName.computeIfAbsent(element.tagName().toLowerCase(Locale.ROOT), key -> new ArrayList<>()).add(element);
+        normalizedOwnTexts.add(normalizedOwnText);
+
+        if (normalizedOwnText.isEmpty())
+        {
+            return;
+        }
+
+        String ownText = normalizedOwnText.getTrimmed();
+
+        List<Element> sameOwnText = elementsByOwnText.get(ownText);
+
+        if (sameOwnText == null)
+        {
+            sameOwnText = new ArrayList<>();
+            elementsByOwnText.put(ownText, sameOwnText);
+            distinctOwnTexts.add(normalizedOwnText);
+            ownTextsByFoldedText.computeIfAbsent(normalizedOwnText.getFolded(), key -> new ArrayList<>()).add(ownText);
+        }
+
+        sameOwnText.add(element);
+    }
+}
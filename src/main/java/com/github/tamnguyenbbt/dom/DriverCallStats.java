@@ -0,0 +1,119 @@
+package com.github.tamnguyenbbt.dom;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Immutable count and latency histogram of one kind of driver call.
+ * Latencies are counted in power of two buckets of microseconds, so percentiles are accurate to within a factor of
+ * two, which is enough to tell a local driver from a remote grid.
+ */
+public class DriverCallStats
+{
+    static final int BUCKET_COUNT = 40;
+    static final DriverCallStats EMPTY = new DriverCallStats(0, 0, 0, new long[BUCKET_COUNT]);
+
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] buckets;
+
+    DriverCallStats(long count, long totalNanos, long maxNanos, long[] buckets)
+    {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.buckets = buckets;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public long getTotalNanos()
+    {
+        return totalNanos;
+    }
+
+    public long getMeanNanos()
+    {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    public long getMaxNanos()
+    {
+        return maxNanos;
+    }
+
+    /**
+     * Upper bound of the latency of the given percent of the calls, i.e. 99 for the 99th percentile
+     */
+    public long getPercentileNanos(double percent)
+    {
+        long rank = (long) Math.ceil(percent / 100 * count);
+        long seen = 0;
+
+        for (int bucket = 0; bucket < buckets.length && rank > 0; bucket++)
+        {
+            seen += buckets[bucket];
+
+            if (seen >= rank)
+            {
+                return Math.min(TimeUnit.MICROSECONDS.toNanos(1L << bucket), maxNanos);
+            }
+        }
+
+        return maxNanos;
+    }
+
+    /**
+     * Number of calls per bucket, bucket 0 counts calls under 1 microsecond and bucket n the ones from 2^(n-1) up to
+     * 2^n microseconds
+     */
+    public long[] getBuckets()
+    {
+        return buckets.clone();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms", count, getMeanNanos() / 1e6,
+                getPercentileNanos(50) / 1e6, getPercentileNanos(99) / 1e6, maxNanos / 1e6);
+    }
+
+    /**
+     * Thread safe recorder the snapshots are taken from
+     */
+    static class Recorder
+    {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        void record(long nanos)
+        {
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            int bucket = micros == 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+            buckets.incrementAndGet(bucket);
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            count.incrementAndGet();
+        }
+
+        DriverCallStats snapshot()
+        {
+            long[] counts = new long[BUCKET_COUNT];
+
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+            {
+                counts[bucket] = buckets.get(bucket);
+            }
+
+            return new DriverCallStats(count.get(), totalNanos.get(), maxNanos.get(), counts);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.tamnguyenbbt.dom;
+
+/**
+ * Kinds of WebDriver round-trips counted by {@link InstrumentedWebDriver}
+ */
+public enum DriverCallType
+{
+    NAVIGATE,
+    PAGE_SOURCE,
+    FIND_ELEMENT,
+    FIND_ELEMENTS,
+    EXECUTE_SCRIPT,
+    OTHER
+}
@@ -0,0 +1,211 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs page tasks over a pool of WebDriver sessions, i.e. regenerating the page objects of many URLs.
+ * Each of the N workers borrows a session for one URL at a time: it navigates, takes the active Document and runs
+ * the task. Sessions are created on demand by the driver factory, up to N, and a session failing to navigate or to
+ * return its page source, or whose task fails with a WebDriverException other than an element not found, is quit and
+ * replaced by a new one for the next URL.
+ * At most N tasks run and queueCapacity tasks wait: {@link #submit(String, PageTask)} blocks when all are taken,
+ * so a producer feeding thousands of URLs never gets ahead of the sessions.
+ */
+public class DriverPool implements AutoCloseable
+{
+    public interface PageTask<T>
+    {
+        T run(WebDriver driver, Document document) throws Exception;
+    }
+
+    private final Supplier<WebDriver> driverFactory;
+    private final DomUtil domUtil;
+    private final ExecutorService executor;
+    private final BlockingQueue<WebDriver> idleDrivers = new LinkedBlockingQueue<>();
+    private final List<WebDriver> drivers = new ArrayList<>();
+    private final Semaphore slots;
+
+    public DriverPool(Supplier<WebDriver> driverFactory, int sessionCount, int queueCapacity)
+    {
+        this(driverFactory, new DomUtil(), sessionCount, queueCapacity);
+    }
+
+    public DriverPool(Supplier<WebDriver> driverFactory, DomUtil domUtil, int sessionCount, int queueCapacity)
+    {
+        this.driverFactory = driverFactory;
+        this.domUtil = domUtil;
+        executor = Executors.newFixedThreadPool(sessionCount);
+        slots = new Semaphore(sessionCount + queueCapacity);
+    }
+
+    /**
+     * Navigates a session to the url and runs the task on its active Document, blocking while the pool is full
+     */
+    public <T> CompletableFuture<T> submit(String url, PageTask<T> task) throws InterruptedException
+    {
+        slots.acquire();
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try
+        {
+            executor.execute(() ->
+            {
+                try
+                {
+                    future.complete(run(url, task));
+                }
+                catch (Throwable e)
+                {
+                    future.completeExceptionally(e);
+                }
+                finally
+                {
+                    slots.release();
+                }
+            });
+        }
+        catch (RuntimeException e)
+        {
+            slots.release();
+            throw e;
+        }
+
+        return future;
+    }
+
+    /**
+     * Generates the page object class of the url into the folder, completing with the generated file name
+     */
+    public CompletableFuture<String> generatePageObjectModelClass(String url, ICodeGenAssociation codeGenAssociation, String folder)
+            throws InterruptedException
+    {
+        return submit(url, (driver, document) ->
+        {
+            CodeGenerator codeGenerator = new CodeGenerator(document, codeGenAssociation);
+            String fileName = folder + File.separator + codeGenerator.getCodeGenClassName() + "Generated.java";
+            codeGenerator.generatePageObjectModelClass(fileName);
+            return fileName;
+        });
+    }
+
+    /**
+     * Waits for the submitted tasks to finish and quits every session
+     */
+    @Override
+    public void close() throws InterruptedException
+    {
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        synchronized (drivers)
+        {
+            for (WebDriver driver : drivers)
+            {
+                quit(driver);
+            }
+
+            drivers.clear();
+        }
+    }
+
+    private <T> T run(String url, PageTask<T> task) throws Exception
+    {
+        WebDriver driver = borrow();
+        Document document;
+
+        try
+        {
+            driver.get(url);
+            document = domUtil.getActiveDocument(driver);
+        }
+        catch (Throwable e)
+        {
+            //not only WebDriverException, i.e. a page source jsoup cannot parse must not leak the session
+            discard(driver);
+            throw e;
+        }
+
+        T result;
+
+        try
+        {
+            result = task.run(driver, document);
+        }
+        catch (WebDriverException e)
+        {
+            //an element not found leaves the session usable, any other driver failure may come from a dead session
+            if (e instanceof NotFoundException)
+            {
+                idleDrivers.offer(driver);
+            }
+            else
+            {
+                discard(driver);
+            }
+
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            idleDrivers.offer(driver);
+            throw e;
+        }
+
+        idleDrivers.offer(driver);
+        return result;
+    }
+
+    private WebDriver borrow()
+    {
+        WebDriver driver = idleDrivers.poll();
+
+        //one task per worker thread, so no more sessions than workers are ever created
+        if (driver == null)
+        {
+            driver = driverFactory.get();
+
+            synchronized (drivers)
+            {
+                drivers.add(driver);
+            }
+        }
+
+        return driver;
+    }
+
+    private void discard(WebDriver driver)
+    {
+        synchronized (drivers)
+        {
+            drivers.remove(driver);
+        }
+
+        quit(driver);
+    }
+
+    private static void quit(WebDriver driver)
+    {
+        try
+        {
+            driver.quit();
+        }
+        catch (WebDriverException e)
+        {
+            //the session is already gone
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.tamnguyenbbt.dom;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the driver calls counted by an {@link InstrumentedWebDriver}: per call type overall, and per
+ * call type within each API scope together with the elapsed time of the scope itself.
+ */
+public class DriverStats
+{
+    private final Map<DriverCallType, DriverCallStats> callStats;
+    private final Map<String, DriverCallStats> apiStats;
+    private final Map<String, Map<DriverCallType, DriverCallStats>> apiCallStats;
+
+    DriverStats(Map<DriverCallType, DriverCallStats> callStats, Map<String, DriverCallStats> apiStats,
+                Map<String, Map<DriverCallType, DriverCallStats>> apiCallStats)
+    {
+        this.callStats = Collections.unmodifiableMap(new EnumMap<>(callStats));
+        this.apiStats = Collections.unmodifiableMap(new TreeMap<>(apiStats));
+        Map<String, Map<DriverCallType, DriverCallStats>> copy = new TreeMap<>();
+
+        for (Map.Entry<String, Map<DriverCallType, DriverCallStats>> entry : apiCallStats.entrySet())
+        {
+            copy.put(entry.getKey(), Collections.unmodifiableMap(new EnumMap<>(entry.getValue())));
+        }
+
+        this.apiCallStats = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * All calls of the type, inside a scope or not
+     */
+    public DriverCallStats getCallStats(DriverCallType callType)
+    {
+        return callStats.getOrDefault(callType, DriverCallStats.EMPTY);
+    }
+
+    /**
+     * Total number of driver calls
+     */
+    public long getCallCount()
+    {
+        long count = 0;
+
+        for (DriverCallStats stats : callStats.values())
+        {
+            count += stats.getCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * Names of the API scopes entered so far, in alphabetical order
+     */
+    public Iterable<String> getApiNames()
+    {
+        return apiStats.keySet();
+    }
+
+    /**
+     * Number of times the API scope was entered and the time spent in it
+     */
+    public DriverCallStats getApiStats(String apiName)
+    {
+        return apiStats.getOrDefault(apiName, DriverCallStats.EMPTY);
+    }
+
+    /**
+     * Calls of the type made inside the API scope
+     */
+    public DriverCallStats getCallStats(String apiName, DriverCallType callType)
+    {
+        return apiCallStats.getOrDefault(apiName, Collections.emptyMap()).getOrDefault(callType, DriverCallStats.EMPTY);
+    }
+
+    /**
+     * Number of driver calls made inside the API scope, over all the times it was entered
+     */
+    public long getCallCount(String apiName)
+    {
+        long count = 0;
+
+        for (DriverCallStats stats : apiCallStats.getOrDefault(apiName, Collections.emptyMap()).values())
+        {
+            count += stats.getCount();
+        }
+
+        return count;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (Map.Entry<DriverCallType, DriverCallStats> entry : callStats.entrySet())
+        {
+            if (entry.getValue().getCount() == 0)
+            {
+                continue;
+            }
+
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+
+        for (Map.Entry<String, DriverCallStats> entry : apiStats.entrySet())
+        {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+
+            for (Map.Entry<DriverCallType, DriverCallStats> call : apiCallStats.getOrDefault(entry.getKey(), Collections.emptyMap()).entrySet())
+            {
+                if (call.getValue().getCount() == 0)
+                {
+                    continue;
+                }
+
+                builder.append("    ").append(call.getKey()).append(": ").append(call.getValue()).append('\n');
+            }
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,385 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable structure-of-arrays snapshot of the element tree of a jsoup Document.
+ * Elements are numbered in document order (the Document itself is 0) and the tree is held in int arrays for parent,
+ * first child, next sibling, depth, tag id and own text id, with tag names and trimmed own texts interned in tables.
+ * Read-only queries (anchor search, closest element, tree distance) run on the arrays without touching jsoup
+ * objects, {@link #getElement(int)} maps a result back to the original element, i.e. to build its xpath.
+ * The snapshot of an indexed Document is kept by its {@link DomIndex}, so it is rebuilt together with the index;
+ * {@link ClosestElementSearch} walks the tree through it.
+ */
+public class FlatDom
+{
+    public static final int NONE = -1;
+
+    private final Element[] elements;
+    private final Map<Element, Integer> ids;
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final int[] depths;
+    private final int[] tagIds;
+    private final int[] textIds;
+    private final String[] tagNames;
+    private final String[] texts;
+    private final String[] foldedTexts;
+    private final Map<String, Integer> tagIdsByName;
+
+    private FlatDom(Builder builder)
+    {
+        int size = builder.elements.size();
+        elements = builder.elements.toArray(new Element[size]);
+        ids = builder.ids;
+        parents = Arrays.copyOf(builder.parents, size);
+        firstChildren = Arrays.copyOf(builder.firstChildren, size);
+        nextSiblings = Arrays.copyOf(builder.nextSiblings, size);
+        depths = Arrays.copyOf(builder.depths, size);
+        tagIds = Arrays.copyOf(builder.tagIds, size);
+        textIds = Arrays.copyOf(builder.textIds, size);
+        tagNames = builder.tagNames.toArray(new String[0]);
+        texts = builder.texts.toArray(new String[0]);
+        foldedTexts = new String[texts.length];
+
+        for (int i = 0; i < texts.length; i++)
+        {
+            foldedTexts[i] = NormalizedText.fold(texts[i]);
+        }
+
+        tagIdsByName = builder.tagIdsByName;
+    }
+
+    public static FlatDom of(Document document)
+    {
+        Builder builder = new Builder();
+        builder.add(document);
+        return new FlatDom(builder);
+    }
+
+    public int size()
+    {
+        return elements.length;
+    }
+
+    public Element getElement(int id)
+    {
+        return elements[id];
+    }
+
+    /**
+     * Id of the element, or {@link #NONE} if it was not part of the Document when the snapshot was taken
+     */
+    public int getId(Element element)
+    {
+        Integer id = ids.get(element);
+        return id == null ? NONE : id;
+    }
+
+    public int getParent(int id)
+    {
+        return parents[id];
+    }
+
+    public int getFirstChild(int id)
+    {
+        return firstChildren[id];
+    }
+
+    public int getNextSibling(int id)
+    {
+        return nextSiblings[id];
+    }
+
+    public int getDepth(int id)
+    {
+        return depths[id];
+    }
+
+    public String getTagName(int id)
+    {
+        return tagNames[tagIds[id]];
+    }
+
+    /**
+     * Trimmed own text of the element, empty when it has none
+     */
+    public String getOwnText(int id)
+    {
+        return textIds[id] == NONE ? "" : texts[textIds[id]];
+    }
+
+    public int[] getIdsByTagName(String tagName)
+    {
+        Integer tagId = tagIdsByName.get(tagName.toLowerCase(Locale.ROOT));
+        IntList found = new IntList();
+
+        for (int id = 0; tagId != null && id < tagIds.length; id++)
+        {
+            if (tagIds[id] == tagId)
+            {
+                found.add(id);
+            }
+        }
+
+        return found.toArray();
+    }
+
+    /**
+     * Ids of the elements whose trimmed own text equals, or contains, the text. The distinct own texts are matched
+     * once and elements are then selected by text id
+     */
+    public int[] getIdsByOwnText(String tagName, String ownText, boolean containing, boolean ignoreCase)
+    {
+        String pattern = ignoreCase ? NormalizedText.fold(ownText.trim()) : ownText.trim();
+        String[] candidates = ignoreCase ? foldedTexts : texts;
+        boolean[] matchedTexts = new boolean[candidates.length];
+        boolean any = false;
+
+        for (int textId = 0; textId < candidates.length; textId++)
+        {
+            matchedTexts[textId] = containing ? candidates[textId].contains(pattern) : candidates[textId].equals(pattern);
+            any |= matchedTexts[textId];
+        }
+
+        Integer tagId = tagName == null ? null : tagIdsByName.get(tagName.toLowerCase(Locale.ROOT));
+        IntList found = new IntList();
+
+        if (!any || (tagName != null && tagId == null))
+        {
+            return found.toArray();
+        }
+
+        for (int id = 0; id < textIds.length; id++)
+        {
+            if (textIds[id] != NONE && matchedTexts[textIds[id]] && (tagId == null || tagIds[id] == tagId))
+            {
+                found.add(id);
+            }
+        }
+
+        return found.toArray();
+    }
+
+    public int getLowestCommonAncestor(int first, int second)
+    {
+        while (depths[first] > depths[second])
+        {
+            first = parents[first];
+        }
+
+        while (depths[second] > depths[first])
+        {
+            second = parents[second];
+        }
+
+        while (first != second)
+        {
+            first = parents[first];
+            second = parents[second];
+        }
+
+        return first;
+    }
+
+    public int distance(int first, int second)
+    {
+        return depths[first] + depths[second] - 2 * depths[getLowestCommonAncestor(first, second)];
+    }
+
+    /**
+     * Ids of the elements of the tag closest to any of the anchors, in document order
+     */
+    public int[] getClosestIds(int[] anchorIds, String targetTagName)
+    {
+        int[] targets = getIdsByTagName(targetTagName);
+        IntList closest = new IntList();
+        int closestDistance = Integer.MAX_VALUE;
+
+        for (int target : targets)
+        {
+            int distance = Integer.MAX_VALUE;
+
+            for (int anchor : anchorIds)
+            {
+                distance = Math.min(distance, distance(anchor, target));
+            }
+
+            if (distance < closestDistance)
+            {
+                closest = new IntList();
+                closestDistance = distance;
+            }
+
+            if (distance == closestDistance)
+            {
+                closest.add(target);
+            }
+        }
+
+        return closest.toArray();
+    }
+
+    public List<Element> toElements(int[] ids)
+    {
+        List<Element> found = new ArrayList<>(ids.length);
+
+        for (int id : ids)
+        {
+            found.add(elements[id]);
+        }
+
+        return found;
+    }
+
+    private static class Builder
+    {
+        private final List<Element> elements = new ArrayList<>();
+        private final Map<Element, Integer> ids = new IdentityHashMap<>();
+        private final List<String> tagNames = new ArrayList<>();
+        private final Map<String, Integer> tagIdsByName = new HashMap<>();
+        private final List<String> texts = new ArrayList<>();
+        private final Map<String, Integer> textIdsByText = new HashMap<>();
+        private int[] parents = new int[64];
+        private int[] firstChildren = new int[64];
+        private int[] lastChildren = new int[64];
+        private int[] nextSiblings = new int[64];
+        private int[] depths = new int[64];
+        private int[] tagIds = new int[64];
+        private int[] textIds = new int[64];
+
+        void add(Document document)
+        {
+            List<Element> stack = new ArrayList<>();
+            stack.add(document);
+
+            while (!stack.isEmpty())
+            {
+                Element element = stack.remove(stack.size() - 1);
+                int parentId = element == document ? NONE : ids.get(element.parent());
+                int id = append(element, parentId, parentId == NONE ? 0 : depths[parentId] + 1);
+                link(id, parentId);
+                List<Node> children = element.childNodes();
+
+                for (int i = children.size() - 1; i >= 0; i--)
+                {
+                    if (children.get(i) instanceof Element)
+                    {
+                        stack.add((Element) children.get(i));
+                    }
+                }
+            }
+        }
+
+        private int append(Element element, int parent, int depth)
+        {
+            int id = elements.size();
+            ensureCapacity(id + 1);
+            elements.add(element);
+            ids.put(element, id);
+            parents[id] = parent;
+            firstChildren[id] = NONE;
+            nextSiblings[id] = NONE;
+            depths[id] = depth;
+            tagIds[id] = intern(element.tagName().toLowerCase(Locale.ROOT), tagNames, tagIdsByName);
+            String ownText = element.childNodeSize() == 0 ? "" : element.ownText().trim();
+            textIds[id] = ownText.isEmpty() ? NONE : intern(ownText, texts, textIdsByText);
+            return id;
+        }
+
+        private void link(int id, int parent)
+        {
+            if (parent == NONE)
+            {
+                return;
+            }
+
+            //children are appended in document order, the previous sibling is the last child linked so far
+            if (firstChildren[parent] == NONE)
+            {
+                firstChildren[parent] = id;
+            }
+            else
+            {
+                nextSiblings[lastChildren[parent]] = id;
+            }
+
+            lastChildren[parent] = id;
+        }
+
+        private static int intern(String value, List<String> table, Map<String, Integer> ids)
+        {
+            Integer id = ids.get(value);
+
+            if (id == null)
+            {
+                id = table.size();
+                table.add(value);
+                ids.put(value, id);
+            }
+
+            return id;
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (capacity > parents.length)
+            {
+                int length = Math.max(capacity, parents.length * 2);
+                parents = Arrays.copyOf(parents, length);
+                firstChildren = Arrays.copyOf(firstChildren, length);
+                lastChildren = Arrays.copyOf(lastChildren, length);
+                nextSiblings = Arrays.copyOf(nextSiblings, length);
+                depths = Arrays.copyOf(depths, length);
+                tagIds = Arrays.copyOf(tagIds, length);
+                textIds = Arrays.copyOf(textIds, length);
+            }
+        }
+    }
+
+    static class IntList
+    {
+        private int[] values = new int[8];
+        private int size;
+
+        int size()
+        {
+            return size;
+        }
+
+        int get(int index)
+        {
+            return values[index];
+        }
+
+        void clear()
+        {
+            size = 0;
+        }
+
+        void add(int value)
+        {
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        int[] toArray()
+        {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
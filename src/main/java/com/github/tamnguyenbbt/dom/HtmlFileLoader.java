@@ -0,0 +1,226 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads saved html files with a low peak heap, for bulk runs over captured pages.
+ * The file is memory-mapped instead of read into a byte array, its charset is taken from the byte order mark or from a
+ * meta charset declaration in the first 1024 bytes (UTF-8 otherwise) and the bytes are decoded chunk by chunk straight
+ * into the parser, so that no String of the whole page is ever built.
+ */
+public class HtmlFileLoader
+{
+    private static final int SNIFF_LENGTH = 1024;
+    private static final int CHUNK_LENGTH = 8192;
+    private static final int[] UTF_8_BOM = {0xEF, 0xBB, 0xBF};
+    private static final int[] UTF_16BE_BOM = {0xFE, 0xFF};
+    private static final int[] UTF_16LE_BOM = {0xFF, 0xFE};
+    private static final Pattern META_CHARSET = Pattern.compile("<meta[^>]*?charset\\s*=\\s*[\"']?\\s*([a-zA-Z0-9_:.\\-]+)", Pattern.CASE_INSENSITIVE);
+
+    private final Charset defaultCharset;
+
+    public HtmlFileLoader()
+    {
+        this(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param defaultCharset charset of files with neither a byte order mark nor a meta charset
+     */
+    public HtmlFileLoader(Charset defaultCharset)
+    {
+        this.defaultCharset = defaultCharset;
+    }
+
+    public Charset getDefaultCharset()
+    {
+        return defaultCharset;
+    }
+
+    public Document load(String filePath) throws IOException
+    {
+        return load(new File(filePath).toPath());
+    }
+
+    public Document load(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException(String.format("%s is too large to be mapped: %d bytes", path, channel.size()));
+            }
+
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parse(bytes, path.toAbsolutePath().toString());
+        }
+    }
+
+    /**
+     * Parses html bytes, i.e. a mapped file or an entry of an archive, detecting their charset the same way
+     */
+    public Document parse(ByteBuffer bytes, String baseUri)
+    {
+        Charset charset = detectCharset(bytes);
+
+        for (int[] byteOrderMark : new int[][] {UTF_8_BOM, UTF_16BE_BOM, UTF_16LE_BOM})
+        {
+            if (startsWith(bytes, byteOrderMark))
+            {
+                bytes.position(bytes.position() + byteOrderMark.length);
+                break;
+            }
+        }
+
+        Document document = Parser.htmlParser().parseInput(new BufferedReader(new DecodingReader(bytes, charset), CHUNK_LENGTH), baseUri);
+        document.outputSettings().charset(charset);
+        return document;
+    }
+
+    /**
+     * Charset of the html bytes from their byte order mark, else from a meta charset declaration in the first 1024
+     * bytes, else the default charset. The position of the buffer is left unchanged
+     */
+    public Charset detectCharset(ByteBuffer bytes)
+    {
+        if (startsWith(bytes, UTF_8_BOM))
+        {
+            return StandardCharsets.UTF_8;
+        }
+
+        if (startsWith(bytes, UTF_16BE_BOM))
+        {
+            return StandardCharsets.UTF_16BE;
+        }
+
+        if (startsWith(bytes, UTF_16LE_BOM))
+        {
+            return StandardCharsets.UTF_16LE;
+        }
+
+        int start = bytes.position();
+        byte[] prefix = new byte[Math.min(bytes.remaining(), SNIFF_LENGTH)];
+
+        for (int i = 0; i < prefix.length; i++)
+        {
+            prefix[i] = bytes.get(start + i);
+        }
+
+        Matcher matcher = META_CHARSET.matcher(new String(prefix, StandardCharsets.ISO_8859_1));
+
+        if (matcher.find())
+        {
+            try
+            {
+                Charset declared = Charset.forName(matcher.group(1));
+
+                //a declaration readable as ascii cannot be utf-16, browsers take it as utf-8
+                return declared.name().startsWith("UTF-16") ? StandardCharsets.UTF_8 : declared;
+            }
+            catch (IllegalCharsetNameException | UnsupportedCharsetException e)
+            {
+                return defaultCharset;
+            }
+        }
+
+        return defaultCharset;
+    }
+
+    private static boolean startsWith(ByteBuffer bytes, int... prefix)
+    {
+        if (bytes.remaining() < prefix.length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++)
+        {
+            if ((bytes.get(bytes.position() + i) & 0xFF) != prefix[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reader decoding a byte buffer on demand, malformed input is replaced as browsers do
+     */
+    private static class DecodingReader extends Reader
+    {
+        private final ByteBuffer bytes;
+        private final CharsetDecoder decoder;
+        private final CharBuffer chars = CharBuffer.allocate(CHUNK_LENGTH);
+        private boolean flushed;
+
+        DecodingReader(ByteBuffer bytes, Charset charset)
+        {
+            this.bytes = bytes;
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            chars.flip();
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length)
+        {
+            if (length == 0)
+            {
+                return 0;
+            }
+
+            while (!chars.hasRemaining())
+            {
+                if (flushed)
+                {
+                    return -1;
+                }
+
+                fill();
+            }
+
+            int count = Math.min(length, chars.remaining());
+            chars.get(buffer, offset, count);
+            return count;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        private void fill()
+        {
+            chars.clear();
+
+            //the whole input is in the buffer, an underflow means it is all decoded
+            if (decoder.decode(bytes, chars, true).isUnderflow())
+            {
+                decoder.flush(chars);
+                flushed = true;
+            }
+
+            chars.flip();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.HasInputDevices;
+import org.openqa.selenium.interactions.Interactive;
+import org.openqa.selenium.interactions.Keyboard;
+import org.openqa.selenium.interactions.Mouse;
+import org.openqa.selenium.interactions.Sequence;
+import org.openqa.selenium.internal.WrapsDriver;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * WebDriver decorator counting and timing every round-trip per {@link DriverCallType}, to see where the time of a
+ * lookup goes on a remote grid. Pass it wherever the driver is expected, i.e. to DomUtil.getWebElement, and read
+ * {@link #getStats()}.
+ * Calls can be attributed to the API method that made them by running it inside a {@link #scope(String)}: each scope
+ * on the current thread gets the calls made while it is open, nested scopes included, plus its own elapsed time.
+ * Calls on the WebElements the driver returns, and on the objects of switchTo, navigate, manage, getKeyboard and
+ * getMouse, are not counted.
+ * Screenshots, capabilities and user interactions are forwarded as EventFiringWebDriver does, so that Actions and
+ * screenshot casts keep working, and fail with a WebDriverException when the wrapped driver does not support them.
+ */
+public class InstrumentedWebDriver implements WebDriver, JavascriptExecutor, TakesScreenshot, HasCapabilities, HasInputDevices,
+        Interactive, WrapsDriver
+{
+    /**
+     * An open API scope of the current thread, closed by try-with-resources
+     */
+    public class Scope implements AutoCloseable
+    {
+        private final String apiName;
+        private final long start = System.nanoTime();
+
+        private Scope(String apiName)
+        {
+            this.apiName = apiName;
+            Deque<Scope> openScopes = scopes.get();
+
+            if (openScopes == null)
+            {
+                openScopes = new ArrayDeque<>();
+                scopes.set(openScopes);
+            }
+
+            openScopes.push(this);
+        }
+
+        @Override
+        public void close()
+        {
+            Deque<Scope> openScopes = scopes.get();
+
+            //removed by identity, scopes of the same name may be closed out of order
+            if (openScopes == null || !openScopes.remove(this))
+            {
+                return;
+            }
+
+            if (openScopes.isEmpty())
+            {
+                scopes.remove();
+            }
+
+            getApiRecorder(apiName).record(System.nanoTime() - start);
+        }
+    }
+
+    private final WebDriver driver;
+    private final ThreadLocal<Deque<Scope>> scopes = new ThreadLocal<>();
+    private final Map<DriverCallType, DriverCallStats.Recorder> callRecorders = newCallRecorders();
+    private final Map<String, DriverCallStats.Recorder> apiRecorders = new ConcurrentHashMap<>();
+    private final Map<String, Map<DriverCallType, DriverCallStats.Recorder>> apiCallRecorders = new ConcurrentHashMap<>();
+
+    public InstrumentedWebDriver(WebDriver driver)
+    {
+        this.driver = driver;
+    }
+
+    /**
+     * Attributes the driver calls made on this thread until the scope is closed to the API method
+     */
+    public Scope scope(String apiName)
+    {
+        return new Scope(apiName);
+    }
+
+    public DriverStats getStats()
+    {
+        Map<DriverCallType, DriverCallStats> callStats = snapshot(callRecorders);
+        Map<String, DriverCallStats> apiStats = new HashMap<>();
+        Map<String, Map<DriverCallType, DriverCallStats>> apiCallStats = new HashMap<>();
+
+        for (Map.Entry<String, DriverCallStats.Recorder> entry : apiRecorders.entrySet())
+        {
+            apiStats.put(entry.getKey(), entry.getValue().snapshot());
+        }
+
+        for (Map.Entry<String, Map<DriverCallType, DriverCallStats.Recorder>> entry : apiCallRecorders.entrySet())
+        {
+            apiCallStats.put(entry.getKey(), snapshot(entry.getValue()));
+        }
+
+        return new DriverStats(callStats, apiStats, apiCallStats);
+    }
+
+    @Override
+    public WebDriver getWrappedDriver()
+    {
+        return driver;
+    }
+
+    @Override
+    public void get(String url)
+    {
+        time(DriverCallType.NAVIGATE, () ->
+        {
+            driver.get(url);
+            return null;
+        });
+    }
+
+    @Override
+    public String getCurrentUrl()
+    {
+        return time(DriverCallType.OTHER, driver::getCurrentUrl);
+    }
+
+    @Override
+    public String getTitle()
+    {
+        return time(DriverCallType.OTHER, driver::getTitle);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by)
+    {
+        return time(DriverCallType.FIND_ELEMENTS, () -> driver.findElements(by));
+    }
+
+    @Override
+    public WebElement findElement(By by)
+    {
+        return time(DriverCallType.FIND_ELEMENT, () -> driver.findElement(by));
+    }
+
+    @Override
+    public String getPageSource()
+    {
+        return time(DriverCallType.PAGE_SOURCE, driver::getPageSource);
+    }
+
+    @Override
+    public void close()
+    {
+        time(DriverCallType.OTHER, () ->
+        {
+            driver.close();
+            return null;
+        });
+    }
+
+    @Override
+    public void quit()
+    {
+        time(DriverCallType.OTHER, () ->
+        {
+            driver.quit();
+            return null;
+        });
+    }
+
+    @Override
+    public Set<String> getWindowHandles()
+    {
+        return time(DriverCallType.OTHER, driver::getWindowHandles);
+    }
+
+    @Override
+    public String getWindowHandle()
+    {
+        return time(DriverCallType.OTHER, driver::getWindowHandle);
+    }
+
+    @Override
+    public TargetLocator switchTo()
+    {
+        return driver.switchTo();
+    }
+
+    @Override
+    public Navigation navigate()
+    {
+        return driver.navigate();
+    }
+
+    @Override
+    public Options manage()
+    {
+        return driver.manage();
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args)
+    {
+        return time(DriverCallType.EXECUTE_SCRIPT, () -> as(JavascriptExecutor.class, "execute scripts").executeScript(script, args));
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args)
+    {
+        return time(DriverCallType.EXECUTE_SCRIPT, () -> as(JavascriptExecutor.class, "execute scripts").executeAsyncScript(script, args));
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) throws WebDriverException
+    {
+        return time(DriverCallType.OTHER, () -> as(TakesScreenshot.class, "take screenshots").getScreenshotAs(target));
+    }
+
+    @Override
+    public Capabilities getCapabilities()
+    {
+        return as(HasCapabilities.class, "report capabilities").getCapabilities();
+    }
+
+    @Override
+    public Keyboard getKeyboard()
+    {
+        return as(HasInputDevices.class, "send user interactions").getKeyboard();
+    }
+
+    @Override
+    public Mouse getMouse()
+    {
+        return as(HasInputDevices.class, "send user interactions").getMouse();
+    }
+
+    @Override
+    public void perform(Collection<Sequence> actions)
+    {
+        time(DriverCallType.OTHER, () ->
+        {
+            as(Interactive.class, "send user interactions").perform(actions);
+            return null;
+        });
+    }
+
+    @Override
+    public void resetInputState()
+    {
+        time(DriverCallType.OTHER, () ->
+        {
+            as(Interactive.class, "send user interactions").resetInputState();
+            return null;
+        });
+    }
+
+    private <T> T as(Class<T> type, String capability)
+    {
+        if (!type.isInstance(driver))
+        {
+            throw new WebDriverException(driver.getClass().getName() + " cannot " + capability);
+        }
+
+        return type.cast(driver);
+    }
+
+    private <T> T time(DriverCallType callType, Supplier<T> call)
+    {
+        long start = System.nanoTime();
+
+        try
+        {
+            return call.get();
+        }
+        finally
+        {
+            long nanos = System.nanoTime() - start;
+            callRecorders.get(callType).record(nanos);
+
+            //only a thread that opened a scope has a deque of them
+            Deque<Scope> openScopes = scopes.get();
+
+            if (openScopes != null)
+            {
+                //a scope nested in one of the same name counts each call once
+                Set<String> apiNames = new LinkedHashSet<>();
+
+                for (Scope scope : openScopes)
+                {
+                    apiNames.add(scope.apiName);
+                }
+
+                for (String apiName : apiNames)
+                {
+                    apiCallRecorders.computeIfAbsent(apiName, key -> newCallRecorders()).get(callType).record(nanos);
+                }
+            }
+        }
+    }
+
+    private DriverCallStats.Recorder getApiRecorder(String apiName)
+    {
+        return apiRecorders.computeIfAbsent(apiName, key -> new DriverCallStats.Recorder());
+    }
+
+    private static Map<DriverCallType, DriverCallStats.Recorder> newCallRecorders()
+    {
+        Map<DriverCallType, DriverCallStats.Recorder> recorders = new EnumMap<>(DriverCallType.class);
+
+        for (DriverCallType callType : DriverCallType.values())
+        {
+            recorders.put(callType, new DriverCallStats.Recorder());
+        }
+
+        return recorders;
+    }
+
+    private static Map<DriverCallType, DriverCallStats> snapshot(Map<DriverCallType, DriverCallStats.Recorder> recorders)
+    {
+        Map<DriverCallType, DriverCallStats> stats = new EnumMap<>(DriverCallType.class);
+
+        for (Map.Entry<DriverCallType, DriverCallStats.Recorder> entry : recorders.entrySet())
+        {
+            stats.put(entry.getKey(), entry.getValue().snapshot());
+        }
+
+        return stats;
+    }
+}
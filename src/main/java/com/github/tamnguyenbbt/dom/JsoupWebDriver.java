@@ -0,0 +1,568 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.FindsByCssSelector;
+import org.openqa.selenium.internal.FindsByTagName;
+import org.openqa.selenium.internal.FindsByXPath;
+import org.openqa.selenium.logging.Logs;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-process WebDriver over a jsoup Document, so that the getActiveDocument and getWebElement pipelines can be run and
+ * timed without a browser.
+ * Pages are loaded by a {@link PageLoader}, html files by default. Elements are found by xpath (the subset
+ * {@link XpathEvaluator} supports), css selector and tag name, and the scripts this library executes in the page are
+ * answered in-process. Typed values are kept by the WebElement like the value property of a browser and are not
+ * mutations, clicking a checkbox, radio button or option and {@link #modify(Element, Consumer)} update the Document and
+ * are reported to an {@link ActiveDocumentTracker} as mutations. Every driver call waits for the injected latency first, to simulate
+ * the round-trip to a remote grid. There is no layout, geometry is reported as zero.
+ */
+public class JsoupWebDriver implements WebDriver, JavascriptExecutor, FindsByXPath, FindsByCssSelector, FindsByTagName
+{
+    public interface PageLoader
+    {
+        Document load(String url) throws IOException;
+    }
+
+    private final PageLoader pageLoader;
+    private volatile long latencyNanos;
+    private Document document;
+    private String currentUrl;
+    private boolean observed;
+    private boolean closed;
+    private final Set<Element> changedElements = new LinkedHashSet<>();
+    private final Map<Element, JsoupWebElement> webElements = new IdentityHashMap<>();
+
+    /**
+     * A driver loading html files, by path or file: url
+     */
+    public JsoupWebDriver()
+    {
+        this(JsoupWebDriver::loadFile);
+    }
+
+    public JsoupWebDriver(PageLoader pageLoader)
+    {
+        this.pageLoader = pageLoader;
+    }
+
+    /**
+     * A driver already showing the document, i.e. one parsed from a saved page
+     */
+    public JsoupWebDriver(Document document)
+    {
+        this(JsoupWebDriver::loadFile);
+        this.document = document;
+        currentUrl = document.location();
+    }
+
+    /**
+     * Time every driver call waits before being answered
+     */
+    public void setLatency(long latency, TimeUnit unit)
+    {
+        latencyNanos = unit.toNanos(latency);
+    }
+
+    public synchronized Document getDocument()
+    {
+        return document;
+    }
+
+    @Override
+    public synchronized void get(String url)
+    {
+        roundTrip();
+
+        try
+        {
+            document = pageLoader.load(url);
+        }
+        catch (IOException e)
+        {
+            throw new WebDriverException("Cannot load " + url, e);
+        }
+
+        currentUrl = url;
+        observed = false;
+        changedElements.clear();
+        webElements.clear();
+    }
+
+    @Override
+    public synchronized String getCurrentUrl()
+    {
+        roundTrip();
+        return currentUrl;
+    }
+
+    @Override
+    public synchronized String getTitle()
+    {
+        roundTrip();
+        return getLoadedDocument().title();
+    }
+
+    @Override
+    public synchronized String getPageSource()
+    {
+        roundTrip();
+        return getLoadedDocument().outerHtml();
+    }
+
+    @Override
+    public List<WebElement> findElements(By by)
+    {
+        return by.findElements(this);
+    }
+
+    @Override
+    public WebElement findElement(By by)
+    {
+        return by.findElement(this);
+    }
+
+    @Override
+    public synchronized WebElement findElementByXPath(String using)
+    {
+        return first(findElementsByXPath(using), using);
+    }
+
+    @Override
+    public synchronized List<WebElement> findElementsByXPath(String using)
+    {
+        roundTrip();
+        return toWebElements(select(getLoadedDocument(), using));
+    }
+
+    @Override
+    public synchronized WebElement findElementByCssSelector(String using)
+    {
+        return first(findElementsByCssSelector(using), using);
+    }
+
+    @Override
+    public synchronized List<WebElement> findElementsByCssSelector(String using)
+    {
+        roundTrip();
+        return toWebElements(getLoadedDocument().select(using));
+    }
+
+    @Override
+    public synchronized WebElement findElementByTagName(String using)
+    {
+        return first(findElementsByTagName(using), using);
+    }
+
+    @Override
+    public synchronized List<WebElement> findElementsByTagName(String using)
+    {
+        roundTrip();
+        return toWebElements(getLoadedDocument().getElementsByTag(using));
+    }
+
+    /**
+     * Answers the scripts of {@link ActiveDocumentTracker}, {@link WebElementBatchResolver} and
+     * {@link WebElementLocator}, any other script fails with a WebDriverException
+     */
+    @Override
+    public synchronized Object executeScript(String script, Object... args)
+    {
+        roundTrip();
+        Document loaded = getLoadedDocument();
+
+        if (ActiveDocumentTracker.INSTALL_SCRIPT.equals(script))
+        {
+            observed = true;
+            changedElements.clear();
+            return true;
+        }
+
+        if (ActiveDocumentTracker.POLL_SCRIPT.equals(script))
+        {
+            return observed ? pollChanges(loaded) : null;
+        }
+
+        if (WebElementBatchResolver.FIND_ELEMENTS_SCRIPT.equals(script))
+        {
+            List<Object> found = new ArrayList<>();
+
+            for (Object xpath : (List<?>) args[0])
+            {
+                List<Element> elements = xpath == null ? Collections.emptyList() : select(loaded, (String) xpath);
+                found.add(elements.size() == 1 ? toWebElement(elements.get(0)) : null);
+            }
+
+            return found;
+        }
+
+        if (WebElementLocator.ANCHOR_SEARCH_SCRIPT.equals(script))
+        {
+            AnchorQuery query = new AnchorQuery((String) args[0], (String) args[1], (String) args[2], AnchorSearchMode.valueOf((String) args[3]));
+            query.ignoreCase = (Boolean) args[4];
+            query.containingOnly = (Boolean) args[5];
+            query.indexIfMultipleFound = ((Number) args[6]).intValue();
+            query.maxRadius = ((Number) args[7]).intValue();
+            query.outwardSearch = query.maxRadius != ClosestElementSearch.UNBOUNDED;
+            AnchorResolution resolution = new AnchorBatchResolver().resolve(loaded, Collections.singletonList(query)).get(0);
+            return new ArrayList<Object>(toWebElements(resolution.getElements()));
+        }
+
+        throw new WebDriverException("Script not supported by " + getClass().getSimpleName() + ": " + script);
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args)
+    {
+        throw new WebDriverException("Asynchronous scripts are not supported by " + getClass().getSimpleName());
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+    }
+
+    @Override
+    public synchronized void quit()
+    {
+        closed = true;
+    }
+
+    @Override
+    public Set<String> getWindowHandles()
+    {
+        return Collections.singleton(getWindowHandle());
+    }
+
+    @Override
+    public String getWindowHandle()
+    {
+        return "jsoup";
+    }
+
+    @Override
+    public TargetLocator switchTo()
+    {
+        throw new WebDriverException("Windows and frames are not supported by " + getClass().getSimpleName());
+    }
+
+    @Override
+    public Navigation navigate()
+    {
+        return new Navigation()
+        {
+            @Override
+            public void back()
+            {
+                throw new WebDriverException("History is not supported by " + JsoupWebDriver.this.getClass().getSimpleName());
+            }
+
+            @Override
+            public void forward()
+            {
+                throw new WebDriverException("History is not supported by " + JsoupWebDriver.this.getClass().getSimpleName());
+            }
+
+            @Override
+            public void to(String url)
+            {
+                get(url);
+            }
+
+            @Override
+            public void to(URL url)
+            {
+                get(url.toString());
+            }
+
+            @Override
+            public void refresh()
+            {
+                get(getCurrentUrl());
+            }
+        };
+    }
+
+    /**
+     * Options without cookies where timeouts are accepted and ignored, there is nothing to wait for. The window, input
+     * method and logs fail with a WebDriverException
+     */
+    @Override
+    public Options manage()
+    {
+        return new NoOptions();
+    }
+
+    /**
+     * Changes the element as a script of the page would and reports it to the mutation observer. The element is the
+     * one whose attributes, text or children the change touches
+     */
+    public synchronized void modify(Element element, Consumer<Element> change)
+    {
+        roundTrip();
+        change.accept(element);
+        changed(element);
+    }
+
+    synchronized List<WebElement> findElementsByXPath(Element context, String using)
+    {
+        roundTrip();
+
+        //relative xpaths are evaluated from the element, absolute ones from the document as browsers do
+        return toWebElements(using.startsWith(".") ? select(context, using.substring(1)) : select(getLoadedDocument(), using));
+    }
+
+    synchronized List<WebElement> findElementsByCssSelector(Element context, String using)
+    {
+        roundTrip();
+        List<Element> found = new ArrayList<>(context.select(using));
+        found.remove(context);
+        return toWebElements(found);
+    }
+
+    synchronized List<WebElement> findElementsByTagName(Element context, String using)
+    {
+        roundTrip();
+        List<Element> found = new ArrayList<>(context.getElementsByTag(using));
+        found.remove(context);
+        return toWebElements(found);
+    }
+
+    /**
+     * Records a change made through a {@link JsoupWebElement} or {@link #modify(Element, Consumer)}, for the next poll of the mutation observer
+     */
+    synchronized void changed(Element element)
+    {
+        DomIndex.invalidate(document);
+
+        if (observed)
+        {
+            changedElements.add(element);
+        }
+    }
+
+    synchronized void roundTrip()
+    {
+        if (closed)
+        {
+            throw new WebDriverException("The session is closed");
+        }
+
+        if (latencyNanos > 0)
+        {
+            try
+            {
+                TimeUnit.NANOSECONDS.sleep(latencyNanos);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException(e);
+            }
+        }
+    }
+
+    static WebElement first(List<WebElement> found, String using)
+    {
+        if (found.isEmpty())
+        {
+            throw new NoSuchElementException("Unable to locate element: " + using);
+        }
+
+        return found.get(0);
+    }
+
+    private List<Object> pollChanges(Document loaded)
+    {
+        List<Object> changes = new ArrayList<>();
+        Element root = loaded.child(0);
+
+        for (Element element : changedElements)
+        {
+            if (element == root)
+            {
+                changedElements.clear();
+                return Collections.singletonList(Collections.singletonMap("reset", true));
+            }
+
+            if (element.ownerDocument() != loaded || isBelowAnyOf(element, changedElements))
+            {
+                continue;
+            }
+
+            List<Object> path = new ArrayList<>();
+
+            for (Element step = element; step != root; step = step.parent())
+            {
+                path.add(0, (long) step.elementSiblingIndex());
+                path.add(0, step.tagName());
+            }
+
+            Map<String, Object> change = new HashMap<>();
+            change.put("path", path);
+            change.put("html", element.outerHtml());
+            changes.add(change);
+        }
+
+        changedElements.clear();
+        return changes;
+    }
+
+    private static boolean isBelowAnyOf(Element element, Set<Element> elements)
+    {
+        for (Element parent = element.parent(); parent != null; parent = parent.parent())
+        {
+            if (elements.contains(parent))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static List<Element> select(Element context, String xpath)
+    {
+        try
+        {
+            return XpathEvaluator.compile(xpath.startsWith(".") ? xpath.substring(1) : xpath).evaluate(context);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new WebDriverException(e.getMessage(), e);
+        }
+    }
+
+    private List<WebElement> toWebElements(List<Element> elements)
+    {
+        List<WebElement> found = new ArrayList<>(elements.size());
+
+        for (Element element : elements)
+        {
+            found.add(toWebElement(element));
+        }
+
+        return found;
+    }
+
+    private WebElement toWebElement(Element element)
+    {
+        return webElements.computeIfAbsent(element, key -> new JsoupWebElement(this, key));
+    }
+
+    private Document getLoadedDocument()
+    {
+        if (document == null)
+        {
+            throw new WebDriverException("No page is loaded");
+        }
+
+        return document;
+    }
+
+    private static Document loadFile(String url) throws IOException
+    {
+        File file = url.startsWith("file:") ? new File(URI.create(url)) : new File(url);
+        return Jsoup.parse(file, null, file.toURI().toString());
+    }
+
+    private class NoOptions implements Options, Timeouts
+    {
+        @Override
+        public void addCookie(Cookie cookie)
+        {
+        }
+
+        @Override
+        public void deleteCookieNamed(String name)
+        {
+        }
+
+        @Override
+        public void deleteCookie(Cookie cookie)
+        {
+        }
+
+        @Override
+        public void deleteAllCookies()
+        {
+        }
+
+        @Override
+        public Set<Cookie> getCookies()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Cookie getCookieNamed(String name)
+        {
+            return null;
+        }
+
+        @Override
+        public Timeouts timeouts()
+        {
+            return this;
+        }
+
+        @Override
+        public ImeHandler ime()
+        {
+            throw new WebDriverException("Input methods are not supported by " + JsoupWebDriver.this.getClass().getSimpleName());
+        }
+
+        @Override
+        public Window window()
+        {
+            throw new WebDriverException("Windows are not supported by " + JsoupWebDriver.this.getClass().getSimpleName());
+        }
+
+        @Override
+        public Logs logs()
+        {
+            throw new WebDriverException("Logs are not supported by " + JsoupWebDriver.this.getClass().getSimpleName());
+        }
+
+        @Override
+        public Timeouts implicitlyWait(long time, TimeUnit unit)
+        {
+            return this;
+        }
+
+        @Override
+        public Timeouts setScriptTimeout(long time, TimeUnit unit)
+        {
+            return this;
+        }
+
+        @Override
+        public Timeouts pageLoadTimeout(long time, TimeUnit unit)
+        {
+            return this;
+        }
+    }
+}
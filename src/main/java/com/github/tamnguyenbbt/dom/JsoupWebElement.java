@@ -0,0 +1,313 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Element;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.FindsByCssSelector;
+import org.openqa.selenium.internal.FindsByTagName;
+import org.openqa.selenium.internal.FindsByXPath;
+import java.util.List;
+
+/**
+ * WebElement of a {@link JsoupWebDriver}, a view of one element of its Document.
+ * Typing into an input sets its value, kept here as browsers keep the value property and read back by
+ * getAttribute("value") without changing the Document. Typing into other elements sets their text, clicking toggles
+ * checkboxes and selects radio buttons and options. Every call is a round-trip of the driver.
+ */
+public class JsoupWebElement implements WebElement, FindsByXPath, FindsByCssSelector, FindsByTagName
+{
+    private final JsoupWebDriver driver;
+    private final Element element;
+    private String value;
+
+    JsoupWebElement(JsoupWebDriver driver, Element element)
+    {
+        this.driver = driver;
+        this.element = element;
+    }
+
+    /**
+     * The element of the driver Document this WebElement stands for
+     */
+    public Element getElement()
+    {
+        return element;
+    }
+
+    @Override
+    public void click()
+    {
+        driver.roundTrip();
+        boolean input = element.tagName().equals("input");
+
+        if (input && element.attr("type").equalsIgnoreCase("checkbox"))
+        {
+            toggle(element, "checked", !element.hasAttr("checked"));
+        }
+        else if (input && element.attr("type").equalsIgnoreCase("radio"))
+        {
+            Element group = element.ownerDocument();
+
+            for (Element parent : element.parents())
+            {
+                if (parent.tagName().equals("form"))
+                {
+                    group = parent;
+                    break;
+                }
+            }
+
+            for (Element radio : group.getElementsByAttributeValue("name", element.attr("name")))
+            {
+                if (radio.tagName().equals("input") && radio.attr("type").equalsIgnoreCase("radio"))
+                {
+                    toggle(radio, "checked", radio == element);
+                }
+            }
+        }
+        else if (element.tagName().equals("option") && element.parent() != null)
+        {
+            for (Element option : element.parent().select("option"))
+            {
+                toggle(option, "selected", option == element);
+            }
+        }
+    }
+
+    @Override
+    public void submit()
+    {
+        driver.roundTrip();
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend)
+    {
+        driver.roundTrip();
+        StringBuilder keys = new StringBuilder();
+
+        for (CharSequence key : keysToSend)
+        {
+            keys.append(key);
+        }
+
+        if (element.tagName().equals("input"))
+        {
+            value = getValue() + keys;
+        }
+        else
+        {
+            element.text(element.text() + keys);
+            driver.changed(element);
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        driver.roundTrip();
+
+        if (element.tagName().equals("input"))
+        {
+            value = "";
+        }
+        else
+        {
+            element.text("");
+            driver.changed(element);
+        }
+    }
+
+    @Override
+    public String getTagName()
+    {
+        driver.roundTrip();
+        return element.tagName();
+    }
+
+    @Override
+    public String getAttribute(String name)
+    {
+        driver.roundTrip();
+
+        if (name.equals("value") && element.tagName().equals("input"))
+        {
+            return getValue();
+        }
+
+        return element.hasAttr(name) ? element.attr(name) : null;
+    }
+
+    @Override
+    public boolean isSelected()
+    {
+        driver.roundTrip();
+        return element.hasAttr("checked") || element.hasAttr("selected");
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        driver.roundTrip();
+        return !element.hasAttr("disabled");
+    }
+
+    @Override
+    public String getText()
+    {
+        driver.roundTrip();
+        return element.text();
+    }
+
+    @Override
+    public List<WebElement> findElements(By by)
+    {
+        return by.findElements(this);
+    }
+
+    @Override
+    public WebElement findElement(By by)
+    {
+        return by.findElement(this);
+    }
+
+    @Override
+    public WebElement findElementByXPath(String using)
+    {
+        return JsoupWebDriver.first(findElementsByXPath(using), using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByXPath(String using)
+    {
+        return driver.findElementsByXPath(element, using);
+    }
+
+    @Override
+    public WebElement findElementByCssSelector(String using)
+    {
+        return JsoupWebDriver.first(findElementsByCssSelector(using), using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByCssSelector(String using)
+    {
+        return driver.findElementsByCssSelector(element, using);
+    }
+
+    @Override
+    public WebElement findElementByTagName(String using)
+    {
+        return JsoupWebDriver.first(findElementsByTagName(using), using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByTagName(String using)
+    {
+        return driver.findElementsByTagName(element, using);
+    }
+
+    /**
+     * False for hidden inputs and elements with the hidden attribute or an inline display:none style, there is no
+     * css cascade
+     */
+    @Override
+    public boolean isDisplayed()
+    {
+        driver.roundTrip();
+
+        for (Element current = element; current != null; current = current.parent())
+        {
+            boolean hiddenInput = current.tagName().equals("input") && current.attr("type").equalsIgnoreCase("hidden");
+
+            if (hiddenInput || current.hasAttr("hidden") || current.attr("style").replace(" ", "").contains("display:none"))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public Point getLocation()
+    {
+        driver.roundTrip();
+        return new Point(0, 0);
+    }
+
+    @Override
+    public Dimension getSize()
+    {
+        driver.roundTrip();
+        return new Dimension(0, 0);
+    }
+
+    @Override
+    public Rectangle getRect()
+    {
+        driver.roundTrip();
+        return new Rectangle(new Point(0, 0), new Dimension(0, 0));
+    }
+
+    @Override
+    public String getCssValue(String propertyName)
+    {
+        driver.roundTrip();
+        return "";
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) throws WebDriverException
+    {
+        throw new WebDriverException("Screenshots are not supported by " + driver.getClass().getSimpleName());
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof JsoupWebElement && ((JsoupWebElement) other).element == element;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return System.identityHashCode(element);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + driver.getClass().getSimpleName() + "] -> " + element.cssSelector();
+    }
+
+    /**
+     * The typed value, the value attribute until something is typed or cleared
+     */
+    private String getValue()
+    {
+        return value != null ? value : element.attr("value");
+    }
+
+    private void toggle(Element target, String attributeName, boolean on)
+    {
+        if (target.hasAttr(attributeName) != on)
+        {
+            if (on)
+            {
+                target.attr(attributeName, attributeName);
+            }
+            else
+            {
+                target.removeAttr(attributeName);
+            }
+
+            driver.changed(target);
+        }
+    }
+}
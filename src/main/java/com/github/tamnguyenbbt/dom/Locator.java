@@ -0,0 +1,45 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.openqa.selenium.By;
+
+/**
+ * A generated locator, either a css selector or an xpath when the element can only be located by text
+ */
+public class Locator
+{
+    public enum Type
+    {
+        CSS_SELECTOR,
+        XPATH
+    }
+
+    private final Type type;
+    private final String value;
+
+    public Locator(Type type, String value)
+    {
+        this.type = type;
+        this.value = value;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public String getValue()
+    {
+        return value;
+    }
+
+    public By toBy()
+    {
+        return type == Type.CSS_SELECTOR ? By.cssSelector(value) : By.xpath(value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s: %s", type, value);
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pairs every text-bearing anchor of a page with its nearest interactive element in one traversal of the Document.
+ * Ranking follows the single call lookups: tree distance through the lowest common ancestor, anchors sharing the same
+ * own text are all used (BestEffort) and the closest elements are kept in document order.
+ * Elements are taken from the current Document, so elements added or removed after it was indexed are ranked as the
+ * single call lookups rank them, own texts are the indexed ones.
+ * An interactive element with its own text, i.e. a button or a link, is its own anchor at distance 0, so it maps to
+ * itself with the same xpath DomUtil.getXpath(document, "button", "Next", "button") gives.
+ */
+public class LocatorMapBuilder
+{
+    public static final Set<String> DEFAULT_INTERACTIVE_TAG_NAMES =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList("input", "button", "select", "textarea", "a")));
+
+    private final Set<String> interactiveTagNames;
+    private final XpathBuilder xpathBuilder;
+
+    public LocatorMapBuilder()
+    {
+        this(DEFAULT_INTERACTIVE_TAG_NAMES, new XpathBuilder());
+    }
+
+    public LocatorMapBuilder(Set<String> interactiveTagNames, XpathBuilder xpathBuilder)
+    {
+        this.interactiveTagNames = interactiveTagNames;
+        this.xpathBuilder = xpathBuilder;
+    }
+
+    /**
+     * Anchor own text to its closest interactive element and xpath, in document order of the anchors
+     */
+    public Map<String, LocatorMapEntry> buildLocatorMap(Document document)
+    {
+        Candidates candidates = getCandidates(document);
+        Map<String, LocatorMapEntry> locatorMap = new LinkedHashMap<>();
+
+        for (Map.Entry<String, List<Element>> anchors : candidates.anchorsByOwnText)
+        {
+            LocatorMapEntry entry = getEntry(anchors.getKey(), anchors.getValue(), candidates);
+
+            if (entry != null)
+            {
+                locatorMap.put(anchors.getKey(), entry);
+            }
+        }
+
+        return locatorMap;
+    }
+
+    /**
+     * The anchors grouped by own text and the interactive elements of the document, each group ranked on its own by
+     * {@link #getEntry(String, List, Candidates)}, i.e. by {@link ParallelXpathIndexer}
+     */
+    Candidates getCandidates(Document document)
+    {
+        DomIndex index = DomIndex.of(document);
+        Map<String, List<Element>> anchorsByOwnText = new LinkedHashMap<>();
+        List<Element> interactiveElements = new ArrayList<>();
+
+        for (Element element : document.getAllElements())
+        {
+            if (isInteractive(element))
+            {
+                interactiveElements.add(element);
+            }
+
+            NormalizedText ownText = index.getNormalizedOwnText(element);
+
+            if (!ownText.isEmpty())
+            {
+                anchorsByOwnText.computeIfAbsent(ownText.getTrimmed(), key -> new ArrayList<>()).add(element);
+            }
+        }
+
+        return new Candidates(new ArrayList<>(anchorsByOwnText.entrySet()), interactiveElements, new TreeDistance(index));
+    }
+
+    LocatorMapEntry getEntry(String ownText, List<Element> anchors, Candidates candidates)
+    {
+        List<Element> interactiveElements = candidates.interactiveElements;
+        TreeDistance treeDistance = candidates.treeDistance;
+        List<Element> closest = new ArrayList<>();
+        Element closestAnchor = null;
+        int closestDistance = Integer.MAX_VALUE;
+
+        for (Element target : interactiveElements)
+        {
+            for (Element anchor : anchors)
+            {
+                int distance = treeDistance.distance(anchor, target);
+
+                if (distance < closestDistance)
+                {
+                    closest.clear();
+                    closestDistance = distance;
+                    closestAnchor = anchor;
+                }
+
+                if (distance == closestDistance && (closest.isEmpty() || closest.get(closest.size() - 1) != target))
+                {
+                    closest.add(target);
+                }
+            }
+        }
+
+        return closest.isEmpty() ? null : new LocatorMapEntry(ownText, closestAnchor, closest, xpathBuilder.build(closestAnchor, closest.get(0)));
+    }
+
+    private boolean isInteractive(Element element)
+    {
+        return interactiveTagNames.contains(element.tagName()) && !"hidden".equalsIgnoreCase(element.attr("type"));
+    }
+
+    static class Candidates
+    {
+        final List<Map.Entry<String, List<Element>>> anchorsByOwnText;
+        final List<Element> interactiveElements;
+        final TreeDistance treeDistance;
+
+        Candidates(List<Map.Entry<String, List<Element>>> anchorsByOwnText, List<Element> interactiveElements,
+                   TreeDistance treeDistance)
+        {
+            this.anchorsByOwnText = anchorsByOwnText;
+            this.interactiveElements = interactiveElements;
+            this.treeDistance = treeDistance;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Element;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A label and the interactive element closest to it
+ */
+public class LocatorMapEntry
+{
+    private final String anchorOwnText;
+    private final Element anchorElement;
+    private final List<Element> elements;
+    private final String xpath;
+
+    LocatorMapEntry(String anchorOwnText, Element anchorElement, List<Element> elements, String xpath)
+    {
+        this.anchorOwnText = anchorOwnText;
+        this.anchorElement = anchorElement;
+        this.elements = Collections.unmodifiableList(elements);
+        this.xpath = xpath;
+    }
+
+    public String getAnchorOwnText()
+    {
+        return anchorOwnText;
+    }
+
+    public Element getAnchorElement()
+    {
+        return anchorElement;
+    }
+
+    /**
+     * The first of the closest interactive elements
+     */
+    public Element getElement()
+    {
+        return elements.get(0);
+    }
+
+    /**
+     * All interactive elements at the closest distance, more than one means getXpath would report them as ambiguous
+     */
+    public List<Element> getElements()
+    {
+        return elements;
+    }
+
+    public String getXpath()
+    {
+        return xpath;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s -> %s", anchorOwnText, xpath);
+    }
+}
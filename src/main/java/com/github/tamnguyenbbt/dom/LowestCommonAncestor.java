@@ -0,0 +1,162 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Constant time lowest common ancestor and tree distance queries over the elements of an indexed Document.
+ * Built in linear time from an Euler tour of the element tree plus a sparse table of range minimum depths.
+ * The tour follows the current Document: elements added after indexing are skipped and elements removed after
+ * indexing are not reached, queries on either answer as if the element was not part of the indexed Document.
+ */
+public class LowestCommonAncestor
+{
+    private final DomIndex index;
+    private final int[] depths;
+    private final int[] firstOccurrences;
+    private final int[] tour;
+    private final int[][] sparseTable;
+
+    LowestCommonAncestor(DomIndex index)
+    {
+        this.index = index;
+        List<Element> elements = index.getElements();
+        depths = new int[elements.size()];
+        firstOccurrences = new int[elements.size()];
+        tour = new int[Math.max(1, 2 * elements.size() - 1)];
+        Arrays.fill(firstOccurrences, -1);
+        buildTour(elements);
+        sparseTable = buildSparseTable();
+    }
+
+    /**
+     * The lowest common ancestor of the two elements, or null if either of them is not part of the indexed Document
+     */
+    public Element get(Element first, Element second)
+    {
+        int ancestor = getId(first, second);
+        return ancestor < 0 ? null : index.getElements().get(ancestor);
+    }
+
+    /**
+     * Number of edges between the two elements, or -1 if either of them is not part of the indexed Document
+     */
+    public int distance(Element first, Element second)
+    {
+        int ancestor = getId(first, second);
+        return ancestor < 0 ? -1 : depths[getReachedPosition(first)] + depths[getReachedPosition(second)] - 2 * depths[ancestor];
+    }
+
+    /**
+     * Depth of the element below the Document, or -1 if it is not part of the indexed Document
+     */
+    public int depth(Element element)
+    {
+        int id = getReachedPosition(element);
+        return id < 0 ? -1 : depths[id];
+    }
+
+    private int getId(Element first, Element second)
+    {
+        int firstId = getReachedPosition(first);
+        int secondId = getReachedPosition(second);
+
+        if (firstId < 0 || secondId < 0)
+        {
+            return -1;
+        }
+
+        int from = Math.min(firstOccurrences[firstId], firstOccurrences[secondId]);
+        int to = Math.max(firstOccurrences[firstId], firstOccurrences[secondId]);
+        int level = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+        return shallower(sparseTable[level][from], sparseTable[level][to - (1 << level) + 1]);
+    }
+
+    /**
+     * Position of the element if the tour reached it, -1 otherwise
+     */
+    private int getReachedPosition(Element element)
+    {
+        int id = index.getPosition(element);
+        return id < 0 || firstOccurrences[id] < 0 ? -1 : id;
+    }
+
+    private void buildTour(List<Element> elements)
+    {
+        if (elements.isEmpty())
+        {
+            return;
+        }
+
+        int[] stack = new int[elements.size()];
+        int[] nextChild = new int[elements.size()];
+        int size = 0;
+        int length = 0;
+        stack[size++] = 0;
+        firstOccurrences[0] = length;
+        tour[length++] = 0;
+
+        while (size > 0)
+        {
+            int id = stack[size - 1];
+            List<Node> children = elements.get(id).childNodes();
+            Element child = null;
+
+            while (child == null && nextChild[id] < children.size())
+            {
+                Node node = children.get(nextChild[id]++);
+
+                //added after indexing
+                child = node instanceof Element && index.getPosition((Element) node) >= 0 ? (Element) node : null;
+            }
+
+            if (child == null)
+            {
+                size--;
+
+                if (size > 0)
+                {
+                    tour[length++] = stack[size - 1];
+                }
+
+                continue;
+            }
+
+            int childId = index.getPosition(child);
+            depths[childId] = depths[id] + 1;
+            firstOccurrences[childId] = length;
+            tour[length++] = childId;
+            stack[size++] = childId;
+        }
+    }
+
+    private int[][] buildSparseTable()
+    {
+        int levels = 32 - Integer.numberOfLeadingZeros(tour.length);
+        int[][] table = new int[levels][];
+        table[0] = tour.clone();
+
+        for (int level = 1; level < levels; level++)
+        {
+            int half = 1 << (level - 1);
+            int[] previous = table[level - 1];
+            int[] current = new int[tour.length - (1 << level) + 1];
+
+            for (int i = 0; i < current.length; i++)
+            {
+                current[i] = shallower(previous[i], previous[i + half]);
+            }
+
+            table[level] = current;
+        }
+
+        return table;
+    }
+
+    private int shallower(int first, int second)
+    {
+        return depths[first] <= depths[second] ? first : second;
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.tamnguyenbbt.dom;
+
+import java.util.Locale;
+
+/**
+ * Normalized variants of the own text of an element, computed once and shared by the exact and containing passes.
+ * The trimmed variant is what the ExactMatch comparison and the containing fallback use, the folded variant is the
+ * trimmed one lower-cased for case insensitive comparison. Inner whitespace is kept as is, as DomUtil compares it.
+ */
+public class NormalizedText
+{
+    static final NormalizedText EMPTY = new NormalizedText("");
+
+    private final String trimmed;
+    private String folded;
+
+    public NormalizedText(String ownText)
+    {
+        trimmed = ownText == null ? "" : ownText.trim();
+    }
+
+    public boolean isEmpty()
+    {
+        return trimmed.isEmpty();
+    }
+
+    public String getTrimmed()
+    {
+        return trimmed;
+    }
+
+    public String getFolded()
+    {
+        if (folded == null)
+        {
+            folded = fold(trimmed);
+        }
+
+        return folded;
+    }
+
+    static String fold(String text)
+    {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString()
+    {
+        return trimmed;
+    }
+}
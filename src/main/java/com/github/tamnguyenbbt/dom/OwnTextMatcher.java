@@ -0,0 +1,156 @@
+package com.github.tamnguyenbbt.dom;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton finding every occurrence of a set of patterns in a text in one scan of the text.
+ * An empty pattern is not part of the automaton: it is reported once per text, at position 0, so that it is found
+ * whole in an empty text and contained in any other, as String.equals and String.contains have it.
+ */
+class OwnTextMatcher
+{
+    interface MatchListener
+    {
+        void onMatch(int patternId, int start, int end);
+    }
+
+    private final List<Map<Character, Integer>> transitions;
+    private final List<int[]> outputs;
+    private final int[] patternLengths;
+    private int[] emptyPatternIds = new int[0];
+    private int[] failures;
+
+    OwnTextMatcher(List<String> patterns)
+    {
+        transitions = new ArrayList<>();
+        outputs = new ArrayList<>();
+        patternLengths = new int[patterns.size()];
+        addNode();
+
+        for (int patternId = 0; patternId < patterns.size(); patternId++)
+        {
+            String pattern = patterns.get(patternId);
+            patternLengths[patternId] = pattern.length();
+
+            if (pattern.isEmpty())
+            {
+                emptyPatternIds = append(emptyPatternIds, patternId);
+            }
+            else
+            {
+                addPattern(pattern, patternId);
+            }
+        }
+
+        buildFailures();
+    }
+
+    boolean hasEmptyPattern()
+    {
+        return emptyPatternIds.length > 0;
+    }
+
+    void match(String text, MatchListener listener)
+    {
+        int state = 0;
+
+        for (int patternId : emptyPatternIds)
+        {
+            listener.onMatch(patternId, 0, 0);
+        }
+
+        for (int i = 0; i < text.length(); i++)
+        {
+            state = next(state, text.charAt(i));
+
+            for (int patternId : outputs.get(state))
+            {
+                listener.onMatch(patternId, i + 1 - patternLengths[patternId], i + 1);
+            }
+        }
+    }
+
+    private int next(int state, char character)
+    {
+        Integer target = transitions.get(state).get(character);
+
+        while (target == null && state != 0)
+        {
+            state = failures[state];
+            target = transitions.get(state).get(character);
+        }
+
+        return target == null ? 0 : target;
+    }
+
+    private int addNode()
+    {
+        transitions.add(new HashMap<>());
+        outputs.add(new int[0]);
+        return transitions.size() - 1;
+    }
+
+    private void addPattern(String pattern, int patternId)
+    {
+        int state = 0;
+
+        for (int i = 0; i < pattern.length(); i++)
+        {
+            Integer target = transitions.get(state).get(pattern.charAt(i));
+
+            if (target == null)
+            {
+                target = addNode();
+                transitions.get(state).put(pattern.charAt(i), target);
+            }
+
+            state = target;
+        }
+
+        outputs.set(state, append(outputs.get(state), patternId));
+    }
+
+    private void buildFailures()
+    {
+        failures = new int[transitions.size()];
+        Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+
+        while (!queue.isEmpty())
+        {
+            int state = queue.poll();
+
+            for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet())
+            {
+                int target = transition.getValue();
+                failures[target] = state == 0 ? 0 : next(failures[state], transition.getKey());
+                outputs.set(target, concat(outputs.get(target), outputs.get(failures[target])));
+                queue.add(target);
+            }
+        }
+    }
+
+    private static int[] append(int[] ids, int id)
+    {
+        int[] result = Arrays.copyOf(ids, ids.length + 1);
+        result[ids.length] = id;
+        return result;
+    }
+
+    private static int[] concat(int[] first, int[] second)
+    {
+        if (second.length == 0)
+        {
+            return first;
+        }
+
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
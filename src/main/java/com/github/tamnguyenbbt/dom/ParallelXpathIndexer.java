@@ -0,0 +1,196 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Builds the xpaths of a whole Document on a ForkJoinPool.
+ * By default it builds the locator map {@link LocatorMapBuilder} builds sequentially: the anchor groups are taken in
+ * document order and the list is split in halves until a range is small enough to be ranked by one worker, every
+ * worker sharing the tree distances of the {@link DomIndex}. Ranges are merged back in order so the result is the
+ * same, entry for entry, as the sequential build. An xpath function can be indexed over all elements the same way.
+ * Neither reads anything but the Document, which must not be mutated while indexing.
+ * Close the indexer to shut down a pool it created from a parallelism, a pool passed in is left to its owner.
+ */
+public class ParallelXpathIndexer implements AutoCloseable
+{
+    public interface XpathFunction
+    {
+        /**
+         * @return the xpath of the element or null to leave the element out of the index
+         */
+        String getXpath(Element element);
+    }
+
+    private static final int DEFAULT_THRESHOLD = 256;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final boolean ownedPool;
+
+    public ParallelXpathIndexer()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelXpathIndexer(int parallelism)
+    {
+        this(new ForkJoinPool(parallelism), DEFAULT_THRESHOLD, true);
+    }
+
+    public ParallelXpathIndexer(ForkJoinPool pool)
+    {
+        this(pool, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold number of anchor groups or elements below which a range is indexed without further splitting
+     */
+    public ParallelXpathIndexer(ForkJoinPool pool, int threshold)
+    {
+        this(pool, threshold, false);
+    }
+
+    private ParallelXpathIndexer(ForkJoinPool pool, int threshold, boolean ownedPool)
+    {
+        this.pool = pool;
+        this.threshold = Math.max(1, threshold);
+        this.ownedPool = ownedPool;
+    }
+
+    /**
+     * Indexes the xpath of every interactive element of the locator map, i.e. //button[contains(text(),"Next")] for a
+     * button or //div[div[contains(text(),"Username")]]/input[@id="username"] for an input, in document order of
+     * the anchors. An element closest to several anchors keeps the xpath from the first one.
+     */
+    public XpathIndex index(Document document)
+    {
+        List<Element> elements = new ArrayList<>();
+        List<String> xpaths = new ArrayList<>();
+        Set<Element> indexed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (LocatorMapEntry entry : buildLocatorMap(document, new LocatorMapBuilder()).values())
+        {
+            if (indexed.add(entry.getElement()))
+            {
+                elements.add(entry.getElement());
+                xpaths.add(entry.getXpath());
+            }
+        }
+
+        return new XpathIndex(elements, xpaths);
+    }
+
+    /**
+     * The locator map of {@link LocatorMapBuilder#buildLocatorMap(Document)}, its anchor groups ranked in parallel
+     */
+    public Map<String, LocatorMapEntry> buildLocatorMap(Document document, LocatorMapBuilder locatorMapBuilder)
+    {
+        LocatorMapBuilder.Candidates candidates = locatorMapBuilder.getCandidates(document);
+        List<LocatorMapEntry> entries = pool.invoke(new IndexTask<>(candidates.anchorsByOwnText, 0,
+                candidates.anchorsByOwnText.size(),
+                anchors -> locatorMapBuilder.getEntry(anchors.getKey(), anchors.getValue(), candidates), threshold));
+        Map<String, LocatorMapEntry> locatorMap = new LinkedHashMap<>();
+
+        for (LocatorMapEntry entry : entries)
+        {
+            locatorMap.put(entry.getAnchorOwnText(), entry);
+        }
+
+        return locatorMap;
+    }
+
+    /**
+     * Indexes the xpath function over all elements of the document, in document order
+     */
+    public XpathIndex index(Document document, XpathFunction xpathFunction)
+    {
+        List<Element> elements = DomIndex.of(document).getElements();
+        List<Map.Entry<Element, String>> indexed = pool.invoke(new IndexTask<>(elements, 0, elements.size(), element ->
+        {
+            String xpath = xpathFunction.getXpath(element);
+            return xpath == null ? null : new AbstractMap.SimpleImmutableEntry<>(element, xpath);
+        }, threshold));
+        List<Element> indexedElements = new ArrayList<>(indexed.size());
+        List<String> xpaths = new ArrayList<>(indexed.size());
+
+        for (Map.Entry<Element, String> entry : indexed)
+        {
+            indexedElements.add(entry.getKey());
+            xpaths.add(entry.getValue());
+        }
+
+        return new XpathIndex(indexedElements, xpaths);
+    }
+
+    @Override
+    public void close()
+    {
+        if (ownedPool)
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Applies the function to a range of the items, leaving out null results, in item order
+     */
+    private static class IndexTask<S, T> extends RecursiveTask<List<T>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final List<S> items;
+        private final int from;
+        private final int to;
+        private final Function<S, T> function;
+        private final int threshold;
+
+        IndexTask(List<S> items, int from, int to, Function<S, T> function, int threshold)
+        {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.function = function;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<T> compute()
+        {
+            if (to - from <= threshold)
+            {
+                List<T> results = new ArrayList<>();
+
+                for (int i = from; i < to; i++)
+                {
+                    T result = function.apply(items.get(i));
+
+                    if (result != null)
+                    {
+                        results.add(result);
+                    }
+                }
+
+                return results;
+            }
+
+            int middle = (from + to) >>> 1;
+            IndexTask<S, T> second = new IndexTask<>(items, middle, to, function, threshold);
+            second.fork();
+            List<T> results = new IndexTask<>(items, from, middle, function, threshold).compute();
+            results.addAll(second.join());
+            return results;
+        }
+    }
+}
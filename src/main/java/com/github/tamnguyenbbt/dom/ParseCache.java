@@ -0,0 +1,564 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Attributes;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.DocumentType;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.Tag;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk cache of parsed html files, so that saved pages parsed on every build are read back from a compact binary
+ * form instead of being parsed again.
+ * Entries are keyed by the SHA-256 of the file content, the entry format version and the default charset of the
+ * loader, so an edited file misses and a copy of a file hits. Each entry holds the node tree with tag and attribute
+ * names interned but not the location, which is the path of the loaded file. An indexed cache also stores the
+ * {@link DomIndex} of the Document, built on a miss, as the own text of each element, and a hit registers the index
+ * read back so that {@link DomIndex#of(Document)} does not walk the Document again. The cache is bounded in bytes and evicts the least recently used
+ * entries, a hit touching the last modified time of its entry. The directory is only listed when the running total of
+ * the entries written passes the bound. Entries are written to a temporary file then moved in place, so the directory
+ * can be shared by concurrent builds.
+ */
+public class ParseCache
+{
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final String ENTRY_SUFFIX = ".dom";
+    private static final int MAGIC = 0x444f4d31;
+    private static final int FORMAT_VERSION = 3;
+    private static final byte ELEMENT = 1;
+    private static final byte TEXT = 2;
+    private static final byte DATA = 3;
+    private static final byte COMMENT = 4;
+    private static final byte DOCUMENT_TYPE = 5;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final HtmlFileLoader htmlFileLoader;
+    private final boolean indexed;
+    private long hitCount;
+    private long missCount;
+    private long estimatedBytes = -1;
+
+    public ParseCache(Path directory)
+    {
+        this(directory, DEFAULT_MAX_BYTES, new HtmlFileLoader());
+    }
+
+    public ParseCache(Path directory, long maxBytes, HtmlFileLoader htmlFileLoader)
+    {
+        this(directory, maxBytes, htmlFileLoader, true);
+    }
+
+    /**
+     * @param indexed whether the {@link DomIndex} of each Document is stored with it
+     */
+    public ParseCache(Path directory, long maxBytes, HtmlFileLoader htmlFileLoader, boolean indexed)
+    {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.htmlFileLoader = htmlFileLoader;
+        this.indexed = indexed;
+    }
+
+    /**
+     * The Document of the html file, read from the cache when an entry exists for its content
+     */
+    public Document load(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException(String.format("%s is too large to be mapped: %d bytes", file, channel.size()));
+            }
+
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Path entry = directory.resolve(hash(bytes.duplicate()) + ENTRY_SUFFIX);
+            String location = file.toAbsolutePath().toString();
+            Document document = read(entry, location);
+
+            if (document != null)
+            {
+                synchronized (this)
+                {
+                    hitCount++;
+                }
+
+                return document;
+            }
+
+            document = htmlFileLoader.parse(bytes, location);
+            write(entry, document, indexed ? DomIndex.of(document) : null);
+
+            synchronized (this)
+            {
+                missCount++;
+            }
+
+            return document;
+        }
+    }
+
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Deletes every entry of the cache
+     */
+    public void clear() throws IOException
+    {
+        for (Path entry : listEntries())
+        {
+            Files.deleteIfExists(entry);
+        }
+
+        synchronized (this)
+        {
+            estimatedBytes = 0;
+        }
+    }
+
+    private Document read(Path entry, String location) throws IOException
+    {
+        if (!Files.isRegularFile(entry))
+        {
+            return null;
+        }
+
+        Document document;
+
+        try
+        {
+            document = deserialize(ByteBuffer.wrap(Files.readAllBytes(entry)), location);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            //a corrupt or evicted entry is parsed again
+            Files.deleteIfExists(entry);
+            return null;
+        }
+
+        try
+        {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+        catch (IOException e)
+        {
+            //a read-only cache still hits, its entries are only evicted in write order
+        }
+
+        return document;
+    }
+
+    private void write(Path entry, Document document, DomIndex index) throws IOException
+    {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+        long entryBytes;
+
+        try
+        {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)))
+            {
+                serialize(document, index, output);
+            }
+
+            entryBytes = Files.size(temporary);
+
+            try
+            {
+                Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(temporary);
+        }
+
+        synchronized (this)
+        {
+            //the first write of this instance counts what earlier builds left in the directory
+            if (estimatedBytes < 0)
+            {
+                estimatedBytes = sizeEntries(listEntries()) - entryBytes;
+            }
+
+            estimatedBytes += entryBytes;
+
+            if (estimatedBytes > maxBytes)
+            {
+                estimatedBytes = evict();
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits, returning the bytes left
+     */
+    private long evict() throws IOException
+    {
+        List<Path> entries = listEntries();
+        Map<Path, Long> lastModifiedTimes = new HashMap<>();
+        long totalBytes = 0;
+
+        for (Path entry : entries)
+        {
+            lastModifiedTimes.put(entry, Files.getLastModifiedTime(entry).toMillis());
+            totalBytes += Files.size(entry);
+        }
+
+        entries.sort((first, second) -> Long.compare(lastModifiedTimes.get(first), lastModifiedTimes.get(second)));
+
+        for (int i = 0; i < entries.size() && totalBytes > maxBytes; i++)
+        {
+            totalBytes -= Files.size(entries.get(i));
+            Files.deleteIfExists(entries.get(i));
+        }
+
+        return totalBytes;
+    }
+
+    private static long sizeEntries(List<Path> entries) throws IOException
+    {
+        long totalBytes = 0;
+
+        for (Path entry : entries)
+        {
+            totalBytes += Files.size(entry);
+        }
+
+        return totalBytes;
+    }
+
+    private List<Path> listEntries() throws IOException
+    {
+        List<Path> entries = new ArrayList<>();
+
+        if (!Files.isDirectory(directory))
+        {
+            return entries;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX))
+        {
+            for (Path entry : stream)
+            {
+                entries.add(entry);
+            }
+        }
+
+        return entries;
+    }
+
+    private String hash(ByteBuffer bytes)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((FORMAT_VERSION + ":" + htmlFileLoader.getDefaultCharset().name() + ":").getBytes(StandardCharsets.UTF_8));
+            digest.update(bytes);
+            StringBuilder hex = new StringBuilder();
+
+            for (byte value : digest.digest())
+            {
+                hex.append(String.format("%02x", value));
+            }
+
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the nodes in document order, each element followed by its number of children, then the own text of each
+     * element when the index is not null
+     */
+    static void serialize(Document document, DomIndex index, DataOutputStream output) throws IOException
+    {
+        Map<String, Integer> names = new HashMap<>();
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        writeString(output, document.outputSettings().charset().name());
+        output.writeByte(document.quirksMode().ordinal());
+        output.writeInt(document.childNodeSize());
+        Deque<Node> stack = new ArrayDeque<>();
+        pushChildren(stack, document);
+
+        while (!stack.isEmpty())
+        {
+            Node node = stack.pop();
+
+            if (node instanceof Element)
+            {
+                Element element = (Element) node;
+                output.writeByte(ELEMENT);
+                writeName(output, element.tagName(), names);
+                //an unknown tag written as <tag /> is self closing, known ones already are or are not
+                output.writeBoolean(!element.tag().isKnownTag() && element.tag().isSelfClosing());
+                output.writeInt(element.attributes().size());
+
+                for (Attribute attribute : element.attributes())
+                {
+                    writeName(output, attribute.getKey(), names);
+                    writeString(output, attribute.getValue());
+                }
+
+                output.writeInt(element.childNodeSize());
+                pushChildren(stack, element);
+            }
+            else if (node instanceof TextNode)
+            {
+                output.writeByte(TEXT);
+                writeString(output, ((TextNode) node).getWholeText());
+            }
+            else if (node instanceof DataNode)
+            {
+                output.writeByte(DATA);
+                writeString(output, ((DataNode) node).getWholeData());
+            }
+            else if (node instanceof Comment)
+            {
+                output.writeByte(COMMENT);
+                writeString(output, ((Comment) node).getData());
+            }
+            else if (node instanceof DocumentType)
+            {
+                output.writeByte(DOCUMENT_TYPE);
+                writeString(output, node.attr("name"));
+                writeString(output, node.attr("publicId"));
+                writeString(output, node.attr("systemId"));
+            }
+            else
+            {
+                throw new IOException("Cannot serialize " + node.nodeName());
+            }
+        }
+
+        output.writeBoolean(index != null);
+
+        if (index != null)
+        {
+            Map<String, Integer> ownTexts = new HashMap<>();
+            output.writeInt(index.getElements().size());
+
+            for (Element element : index.getElements())
+            {
+                writeName(output, index.getNormalizedOwnText(element).getTrimmed(), ownTexts);
+            }
+        }
+    }
+
+    /**
+     * Reads a Document back, registering its {@link DomIndex} when one was stored with it
+     *
+     * @param input the whole entry, string lengths read from it are bounded by what remains of it
+     * @param location location of the Document, the path of the file it was parsed from
+     */
+    static Document deserialize(ByteBuffer input, String location) throws IOException
+    {
+        List<String> names = new ArrayList<>();
+        Map<String, Tag> selfClosingTags = new HashMap<>();
+
+        if (input.getInt() != MAGIC || input.getInt() != FORMAT_VERSION)
+        {
+            throw new IOException("Not a cached Document of this version");
+        }
+
+        Document document = new Document(location);
+        List<Element> elements = new ArrayList<>();
+        elements.add(document);
+        document.outputSettings().charset(Charset.forName(readString(input)));
+        document.quirksMode(Document.QuirksMode.values()[input.get()]);
+        Deque<Element> parents = new ArrayDeque<>();
+        Deque<int[]> remainingChildren = new ArrayDeque<>();
+        parents.push(document);
+        remainingChildren.push(new int[] {input.getInt()});
+
+        while (!parents.isEmpty())
+        {
+            if (remainingChildren.peek()[0] == 0)
+            {
+                parents.pop();
+                remainingChildren.pop();
+                continue;
+            }
+
+            remainingChildren.peek()[0]--;
+            Element parent = parents.peek();
+            byte kind = input.get();
+
+            switch (kind)
+            {
+                case ELEMENT:
+                    String tagName = readName(input, names);
+                    Tag tag = input.get() != 0
+                            ? selfClosingTags.computeIfAbsent(tagName, ParseCache::parseSelfClosingTag)
+                            : Tag.valueOf(tagName);
+                    int attributeCount = input.getInt();
+                    Attributes attributes = new Attributes();
+
+                    for (int i = 0; i < attributeCount; i++)
+                    {
+                        attributes.put(readName(input, names), readString(input));
+                    }
+
+                    Element element = new Element(tag, location, attributes);
+                    parent.appendChild(element);
+                    elements.add(element);
+                    parents.push(element);
+                    remainingChildren.push(new int[] {input.getInt()});
+                    break;
+                case TEXT:
+                    parent.appendChild(new TextNode(readString(input)));
+                    break;
+                case DATA:
+                    parent.appendChild(new DataNode(readString(input)));
+                    break;
+                case COMMENT:
+                    parent.appendChild(new Comment(readString(input)));
+                    break;
+                case DOCUMENT_TYPE:
+                    parent.appendChild(new DocumentType(readString(input), readString(input), readString(input)));
+                    break;
+                default:
+                    throw new IOException("Unknown node kind " + kind);
+            }
+        }
+
+        if (input.get() != 0)
+        {
+            List<String> distinctOwnTexts = new ArrayList<>();
+            List<String> ownTexts = new ArrayList<>();
+
+            if (input.getInt() != elements.size())
+            {
+                throw new IOException("The stored index does not match the Document");
+            }
+
+            for (int i = 0; i < elements.size(); i++)
+            {
+                ownTexts.add(readName(input, distinctOwnTexts));
+            }
+
+            DomIndex.register(new DomIndex(document, elements, ownTexts));
+        }
+
+        return document;
+    }
+
+    /**
+     * Tag.valueOf cannot mark an unknown tag self closing, the parser does when it reads one written as <tag />
+     */
+    private static Tag parseSelfClosingTag(String tagName)
+    {
+        Element body = Parser.parseBodyFragment("<" + tagName + " />", "").body();
+        return body.childNodeSize() == 1 && body.child(0).tagName().equals(tagName) ? body.child(0).tag() : Tag.valueOf(tagName);
+    }
+
+    private static void pushChildren(Deque<Node> stack, Node node)
+    {
+        for (int i = node.childNodeSize() - 1; i >= 0; i--)
+        {
+            stack.push(node.childNode(i));
+        }
+    }
+
+    /**
+     * Tag and attribute names are written once, then referred to by their index
+     */
+    private static void writeName(DataOutputStream output, String name, Map<String, Integer> names) throws IOException
+    {
+        Integer id = names.get(name);
+
+        if (id == null)
+        {
+            names.put(name, names.size());
+            output.writeInt(-1);
+            writeString(output, name);
+        }
+        else
+        {
+            output.writeInt(id);
+        }
+    }
+
+    private static String readName(ByteBuffer input, List<String> names) throws IOException
+    {
+        int id = input.getInt();
+
+        if (id < 0)
+        {
+            String name = readString(input);
+            names.add(name);
+            return name;
+        }
+
+        return names.get(id);
+    }
+
+    /**
+     * Length prefixed UTF-8, unlike writeUTF not limited to 64K, scripts are often longer
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer input) throws IOException
+    {
+        int length = input.getInt();
+
+        if (length < 0 || length > input.remaining())
+        {
+            throw new IOException(String.format("String of %d bytes with %d bytes left", length, input.remaining()));
+        }
+
+        String value = new String(input.array(), input.arrayOffset() + input.position(), length, StandardCharsets.UTF_8);
+        input.position(input.position() + length);
+        return value;
+    }
+}
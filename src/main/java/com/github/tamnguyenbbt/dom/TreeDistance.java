@@ -0,0 +1,89 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Element;
+import java.util.List;
+
+/**
+ * Number of edges between two elements of the same tree, through their lowest common ancestor.
+ * Indexed elements are answered in constant time by {@link LowestCommonAncestor}, elements added to the Document
+ * after indexing fall back to walking their parent chains.
+ */
+class TreeDistance
+{
+    private final LowestCommonAncestor lowestCommonAncestor;
+
+    TreeDistance(DomIndex index)
+    {
+        lowestCommonAncestor = index.getLowestCommonAncestor();
+    }
+
+    int distance(Element first, Element second)
+    {
+        int distance = lowestCommonAncestor.distance(first, second);
+        return distance < 0 ? walkDistance(first, second) : distance;
+    }
+
+    /**
+     * The candidate closest to the element, the first one in list order on a tie
+     */
+    Element closest(List<Element> candidates, Element element)
+    {
+        Element closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+
+        for (Element candidate : candidates)
+        {
+            int distance = distance(candidate, element);
+
+            if (distance < closestDistance)
+            {
+                closest = candidate;
+                closestDistance = distance;
+            }
+        }
+
+        return closest;
+    }
+
+    private static int walkDistance(Element first, Element second)
+    {
+        int firstDepth = depth(first);
+        int secondDepth = depth(second);
+        int distance = 0;
+
+        while (firstDepth > secondDepth)
+        {
+            first = first.parent();
+            firstDepth--;
+            distance++;
+        }
+
+        while (secondDepth > firstDepth)
+        {
+            second = second.parent();
+            secondDepth--;
+            distance++;
+        }
+
+        while (first != second)
+        {
+            first = first.parent();
+            second = second.parent();
+            distance += 2;
+        }
+
+        return distance;
+    }
+
+    private static int depth(Element element)
+    {
+        int depth = 0;
+
+        for (Element parent = element.parent(); parent != null; parent = parent.parent())
+        {
+            depth++;
+        }
+
+        return depth;
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.tamnguyenbbt.dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram posting lists over case-folded texts.
+ * A containing query intersects the posting lists of the trigrams of the pattern and verifies the few remaining
+ * candidates. Patterns shorter than a trigram fall back to scanning the texts.
+ */
+class TrigramIndex
+{
+    private static final int GRAM_LENGTH = 3;
+
+    private final String[] foldedTexts;
+    private final Map<Long, int[]> postings;
+
+    TrigramIndex(List<NormalizedText> texts)
+    {
+        foldedTexts = new String[texts.size()];
+        postings = new HashMap<>();
+        Map<Long, Posting> building = new HashMap<>();
+
+        for (int id = 0; id < foldedTexts.length; id++)
+        {
+            String folded = texts.get(id).getFolded();
+            foldedTexts[id] = folded;
+
+            for (int i = 0; i + GRAM_LENGTH <= folded.length(); i++)
+            {
+                building.computeIfAbsent(gram(folded, i), key -> new Posting()).add(id);
+            }
+        }
+
+        for (Map.Entry<Long, Posting> entry : building.entrySet())
+        {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    /**
+     * Ids (positions in the indexed list) of the texts containing the pattern ignoring case, in ascending order
+     */
+    List<Integer> getIdsContaining(String pattern)
+    {
+        String foldedPattern = NormalizedText.fold(pattern);
+        List<Integer> ids = new ArrayList<>();
+
+        if (foldedPattern.length() < GRAM_LENGTH)
+        {
+            for (int id = 0; id < foldedTexts.length; id++)
+            {
+                if (foldedTexts[id].contains(foldedPattern))
+                {
+                    ids.add(id);
+                }
+            }
+
+            return ids;
+        }
+
+        int[] candidates = getCandidates(foldedPattern);
+
+        for (int id : candidates)
+        {
+            if (foldedTexts[id].contains(foldedPattern))
+            {
+                ids.add(id);
+            }
+        }
+
+        return ids;
+    }
+
+    private int[] getCandidates(String foldedPattern)
+    {
+        List<int[]> lists = new ArrayList<>();
+
+        for (int i = 0; i + GRAM_LENGTH <= foldedPattern.length(); i++)
+        {
+            int[] posting = postings.get(gram(foldedPattern, i));
+
+            if (posting == null)
+            {
+                return new int[0];
+            }
+
+            lists.add(posting);
+        }
+
+        lists.sort((first, second) -> Integer.compare(first.length, second.length));
+        int[] candidates = lists.get(0);
+
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++)
+        {
+            candidates = intersect(candidates, lists.get(i));
+        }
+
+        return candidates;
+    }
+
+    private static int[] intersect(int[] first, int[] second)
+    {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < first.length && j < second.length)
+        {
+            if (first[i] == second[j])
+            {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+            else if (first[i] < second[j])
+            {
+                i++;
+            }
+            else
+            {
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long gram(String text, int start)
+    {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static class Posting
+    {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id)
+        {
+            //a text is indexed once per occurrence of the trigram, keep the ids distinct
+            if (size > 0 && ids[size - 1] == id)
+            {
+                return;
+            }
+
+            if (size == ids.length)
+            {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+
+            ids[size++] = id;
+        }
+
+        int[] toArray()
+        {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the WebElements of many anchor queries with a single driver round-trip.
+ * The queries are resolved locally against the Document of the page by {@link AnchorBatchResolver}, an xpath is built
+ * for each found element and all xpaths are then evaluated in the browser by one executeScript call, instead of one
+ * findElement call per query as the DomUtil getWebElement overloads do.
+ */
+public class WebElementBatchResolver
+{
+    static final String FIND_ELEMENTS_SCRIPT =
+            "var xpaths = arguments[0], found = [];" +
+            "for (var i = 0; i < xpaths.length; i++) {" +
+            "  var result = null;" +
+            "  if (xpaths[i]) {" +
+            "    var snapshot = document.evaluate(xpaths[i], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+            "    result = snapshot.snapshotLength === 1 ? snapshot.snapshotItem(0) : null;" +
+            "  }" +
+            "  found.push(result);" +
+            "}" +
+            "return found;";
+
+    private final DomUtil domUtil;
+    private final AnchorBatchResolver anchorBatchResolver;
+    private final XpathBuilder xpathBuilder;
+
+    public WebElementBatchResolver()
+    {
+        this(new DomUtil(), new AnchorBatchResolver(), new XpathBuilder());
+    }
+
+    public WebElementBatchResolver(DomUtil domUtil, AnchorBatchResolver anchorBatchResolver, XpathBuilder xpathBuilder)
+    {
+        this.domUtil = domUtil;
+        this.anchorBatchResolver = anchorBatchResolver;
+        this.xpathBuilder = xpathBuilder;
+    }
+
+    /**
+     * The WebElements of the queries in query order, resolved against the active document of the driver
+     */
+    public List<WebElement> getWebElements(WebDriver driver, List<AnchorQuery> queries)
+    {
+        return getWebElements(driver, domUtil.getActiveDocument(driver), queries);
+    }
+
+    /**
+     * The WebElements of the queries in query order, resolved against a Document already taken from the driver, i.e.
+     * by an {@link ActiveDocumentTracker}. An entry is null when its query does not resolve to exactly one element,
+     * locally or in the browser, where the single call overloads would throw; use {@link AnchorBatchResolver} to get
+     * the reason
+     */
+    public List<WebElement> getWebElements(WebDriver driver, Document document, List<AnchorQuery> queries)
+    {
+        List<String> xpaths = getXpaths(document, queries);
+        List<WebElement> webElements = new ArrayList<>(xpaths.size());
+        boolean any = false;
+
+        for (String xpath : xpaths)
+        {
+            any |= xpath != null;
+        }
+
+        if (!any)
+        {
+            for (int i = 0; i < xpaths.size(); i++)
+            {
+                webElements.add(null);
+            }
+
+            return webElements;
+        }
+
+        List<?> found = (List<?>) ((JavascriptExecutor) driver).executeScript(FIND_ELEMENTS_SCRIPT, xpaths);
+
+        for (Object element : found)
+        {
+            webElements.add((WebElement) element);
+        }
+
+        return webElements;
+    }
+
+    /**
+     * The xpath of the single element each query resolves to, relative to its closest anchor, or null
+     */
+    public List<String> getXpaths(Document document, List<AnchorQuery> queries)
+    {
+        List<AnchorResolution> resolutions = anchorBatchResolver.resolve(document, queries);
+        TreeDistance treeDistance = new TreeDistance(DomIndex.of(document));
+        List<String> xpaths = new ArrayList<>(resolutions.size());
+
+        for (AnchorResolution resolution : resolutions)
+        {
+            if (!resolution.isFound() || resolution.getElements().size() != 1)
+            {
+                xpaths.add(null);
+                continue;
+            }
+
+            Element target = resolution.getElement();
+            xpaths.add(xpathBuilder.build(treeDistance.closest(resolution.getAnchorElements(), target), target));
+        }
+
+        return xpaths;
+    }
+}
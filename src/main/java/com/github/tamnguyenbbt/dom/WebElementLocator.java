@@ -0,0 +1,195 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the WebElements of an {@link AnchorQuery} either locally or inside the page.
+ * {@link Strategy#LOCAL} takes the page source, runs the anchor and closest element search on jsoup and fetches the
+ * found elements by xpath in one round-trip. {@link Strategy#IN_BROWSER} runs the search as an injected script that
+ * reads own texts by the jsoup rules and returns the found elements directly, so that the page source of a huge DOM is
+ * never transferred. Results can still differ where the browser DOM differs from the parsed page source.
+ * Both follow the AnchorQuery semantics: exact match first then containing unless ExactMatch, containingOnly,
+ * ignoreCase, the anchor tag name, indexIfMultipleFound, BestEffort over multiple anchors and the outward search radius.
+ */
+public class WebElementLocator
+{
+    public enum Strategy
+    {
+        LOCAL,
+        IN_BROWSER
+    }
+
+    /**
+     * Arguments: anchor tag name, anchor own text, target selector, search mode name, ignoreCase, containingOnly,
+     * indexIfMultipleFound, maxRadius. Own texts follow jsoup: whitespace including nbsp collapses to one space except
+     * below pre, textarea and title, zero width spaces and soft hyphens are dropped, a br child counts as a space, only
+     * ascii whitespace is trimmed and script and style hold no text. Returns the closest elements in document order,
+     * empty when none is found, the anchor text is blank or the anchors are ambiguous.
+     * Plain ES5, so that it also runs in the script engine of the JDK, where it is tested against the LOCAL search
+     */
+    static final String ANCHOR_SEARCH_SCRIPT =
+            "var tagName = arguments[0], text = arguments[1], selector = arguments[2], mode = arguments[3];" +
+            "var ignoreCase = arguments[4], containingOnly = arguments[5], index = arguments[6], maxRadius = arguments[7];" +
+            "var trim = function(value) { return value.replace(/^[\\x00-\\x20]+|[\\x00-\\x20]+$/g, ''); };" +
+            "var isPreserved = function(element) {" +
+            "  for (var i = 0; element && element.nodeType === 1 && i < 6; i++, element = element.parentNode) {" +
+            "    if (/^(pre|plaintext|title|textarea)$/i.test(element.tagName)) { return true; }" +
+            "  }" +
+            "  return false;" +
+            "};" +
+            "var pattern = trim(text || '');" +
+            "if (!pattern) { return []; }" +
+            "if (ignoreCase) { pattern = pattern.toLowerCase(); }" +
+            "var exactMatches = [], containingMatches = [], all = document.getElementsByTagName('*');" +
+            "for (var i = 0; i < all.length; i++) {" +
+            "  var element = all[i];" +
+            "  if (tagName && element.tagName.toLowerCase() !== tagName.toLowerCase()) { continue; }" +
+            "  if (/^(script|style)$/i.test(element.tagName)) { continue; }" +
+            "  var ownText = '';" +
+            "  for (var child = element.firstChild; child; child = child.nextSibling) {" +
+            "    if (child.nodeType === 3) { ownText += child.nodeValue; }" +
+            "    else if (child.nodeType === 1 && child.tagName.toLowerCase() === 'br' && ownText.slice(-1) !== ' ') { ownText += ' '; }" +
+            "  }" +
+            "  if (!isPreserved(element)) {" +
+            "    ownText = ownText.replace(/[\\u200b\\u00ad]/g, '').replace(/[ \\t\\n\\f\\r\\u00a0]+/g, ' ');" +
+            "  }" +
+            "  ownText = trim(ownText);" +
+            "  if (!ownText) { continue; }" +
+            "  if (ignoreCase) { ownText = ownText.toLowerCase(); }" +
+            "  if (ownText === pattern) { exactMatches.push(element); }" +
+            "  if (ownText.indexOf(pattern) >= 0) { containingMatches.push(element); }" +
+            "}" +
+            "var anchors = containingOnly ? [] : exactMatches;" +
+            "if (!anchors.length && (containingOnly || mode !== 'EXACT_MATCH')) { anchors = containingMatches; }" +
+            "if (!anchors.length) { return []; }" +
+            "if (anchors.length > 1 && index >= 0) {" +
+            "  if (index >= anchors.length) { return []; }" +
+            "  anchors = [anchors[index]];" +
+            "} else if (anchors.length > 1 && mode !== 'BEST_EFFORT') {" +
+            "  return [];" +
+            "}" +
+            "var chains = anchors.map(function(anchor) {" +
+            "  var chain = [];" +
+            "  for (var node = anchor; node; node = node.parentNode) { chain.push(node); }" +
+            "  return chain;" +
+            "});" +
+            "var closest = [], closestDistance = Infinity, targets = document.querySelectorAll(selector);" +
+            "for (var i = 0; i < targets.length; i++) {" +
+            "  var distance = Infinity;" +
+            "  for (var j = 0; j < chains.length; j++) {" +
+            "    var steps = 0, depth = -1;" +
+            "    for (var node = targets[i]; node && (depth = chains[j].indexOf(node)) < 0; node = node.parentNode) { steps++; }" +
+            "    if (node) { distance = Math.min(distance, steps + depth); }" +
+            "  }" +
+            "  if (maxRadius >= 0 && distance > maxRadius) { continue; }" +
+            "  if (distance < closestDistance) { closest = []; closestDistance = distance; }" +
+            "  if (distance === closestDistance) { closest.push(targets[i]); }" +
+            "}" +
+            "return closest;";
+
+    private final DomUtil domUtil;
+    private final AnchorBatchResolver anchorBatchResolver;
+    private final XpathBuilder xpathBuilder;
+    private final Strategy strategy;
+
+    public WebElementLocator()
+    {
+        this(Strategy.LOCAL);
+    }
+
+    public WebElementLocator(Strategy strategy)
+    {
+        this(new DomUtil(), new AnchorBatchResolver(), new XpathBuilder(), strategy);
+    }
+
+    public WebElementLocator(DomUtil domUtil, AnchorBatchResolver anchorBatchResolver, XpathBuilder xpathBuilder, Strategy strategy)
+    {
+        this.domUtil = domUtil;
+        this.anchorBatchResolver = anchorBatchResolver;
+        this.xpathBuilder = xpathBuilder;
+        this.strategy = strategy;
+    }
+
+    public Strategy getStrategy()
+    {
+        return strategy;
+    }
+
+    /**
+     * The single WebElement closest to the anchor, or null if none is found, the anchors are ambiguous or more than
+     * one element is equally close
+     */
+    public WebElement getWebElement(WebDriver driver, AnchorQuery query)
+    {
+        //decided before dropping the elements the browser could not fetch, one fetched out of two found is ambiguous
+        List<WebElement> found = search(driver, query);
+        return found.size() == 1 ? found.get(0) : null;
+    }
+
+    /**
+     * The WebElements closest to the anchor in document order, empty if none is found or the anchors are ambiguous
+     */
+    public List<WebElement> getWebElements(WebDriver driver, AnchorQuery query)
+    {
+        List<WebElement> found = search(driver, query);
+        found.removeAll(Collections.singleton(null));
+        return found;
+    }
+
+    /**
+     * The found WebElements, null where the LOCAL strategy found an element the browser could not fetch by xpath
+     */
+    private List<WebElement> search(WebDriver driver, AnchorQuery query)
+    {
+        return strategy == Strategy.IN_BROWSER ? searchInBrowser(driver, query) : searchLocally(driver, query);
+    }
+
+    private List<WebElement> searchInBrowser(WebDriver driver, AnchorQuery query)
+    {
+        Object found = ((JavascriptExecutor) driver).executeScript(ANCHOR_SEARCH_SCRIPT, query.anchorTagName,
+                query.anchorOwnText, query.targetSelector, query.searchMode.name(), query.ignoreCase, query.containingOnly,
+                query.indexIfMultipleFound, query.outwardSearch ? query.maxRadius : ClosestElementSearch.UNBOUNDED);
+        return toWebElements((List<?>) found);
+    }
+
+    private List<WebElement> searchLocally(WebDriver driver, AnchorQuery query)
+    {
+        Document document = domUtil.getActiveDocument(driver);
+        AnchorResolution resolution = anchorBatchResolver.resolve(document, Collections.singletonList(query)).get(0);
+
+        if (!resolution.isFound())
+        {
+            return new ArrayList<>();
+        }
+
+        TreeDistance treeDistance = new TreeDistance(DomIndex.of(document));
+        List<String> xpaths = new ArrayList<>();
+
+        for (Element target : resolution.getElements())
+        {
+            xpaths.add(xpathBuilder.build(treeDistance.closest(resolution.getAnchorElements(), target), target));
+        }
+
+        Object found = ((JavascriptExecutor) driver).executeScript(WebElementBatchResolver.FIND_ELEMENTS_SCRIPT, xpaths);
+        return toWebElements((List<?>) found);
+    }
+
+    private static List<WebElement> toWebElements(List<?> found)
+    {
+        List<WebElement> webElements = new ArrayList<>(found.size());
+
+        for (Object element : found)
+        {
+            webElements.add((WebElement) element);
+        }
+
+        return webElements;
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for the WebElement of an anchor query to be rendered, replacing fixed sleeps around getWebElement.
+ * The page is polled through an {@link ActiveDocumentTracker}, so a poll where the DOM did not change costs one small
+ * script call and no search. The delay between polls doubles while the DOM stays unchanged, up to a maximum, and goes
+ * back to the initial delay as soon as it changes. The wait returns as soon as the anchor and the target resolve to
+ * a single element.
+ * An xpath found locally that matches several elements in the browser is searched again at once if the page changed
+ * meanwhile, and fails if it did not, since waiting for an unchanged page cannot make it unique.
+ */
+public class WebElementWaiter
+{
+    public static final long DEFAULT_INITIAL_POLL_MILLIS = 50;
+    public static final long DEFAULT_MAX_POLL_MILLIS = 1000;
+
+    private final WebDriver driver;
+    private final ActiveDocumentTracker tracker;
+    private final WebElementBatchResolver resolver;
+    private final long initialPollMillis;
+    private final long maxPollMillis;
+
+    public WebElementWaiter(WebDriver driver)
+    {
+        this(driver, new ActiveDocumentTracker(driver), new WebElementBatchResolver(), DEFAULT_INITIAL_POLL_MILLIS, DEFAULT_MAX_POLL_MILLIS);
+    }
+
+    /**
+     * @param tracker tracker of the same driver, shared with other callers to reuse its cached Document
+     */
+    public WebElementWaiter(WebDriver driver, ActiveDocumentTracker tracker, WebElementBatchResolver resolver,
+                            long initialPollMillis, long maxPollMillis)
+    {
+        this.driver = driver;
+        this.tracker = tracker;
+        this.resolver = resolver;
+        this.initialPollMillis = initialPollMillis;
+        this.maxPollMillis = maxPollMillis;
+    }
+
+    public WebElement awaitWebElement(String anchorElementOwnText, String searchCssQuery, long timeout, TimeUnit unit)
+            throws InterruptedException
+    {
+        return awaitWebElement(new AnchorQuery(anchorElementOwnText, searchCssQuery), timeout, unit);
+    }
+
+    public WebElement awaitWebElement(String anchorElementTagName, String anchorElementOwnText, String searchCssQuery,
+                                      long timeout, TimeUnit unit)
+            throws InterruptedException
+    {
+        return awaitWebElement(new AnchorQuery(anchorElementTagName, anchorElementOwnText, searchCssQuery), timeout, unit);
+    }
+
+    /**
+     * The single WebElement the query resolves to, as soon as it does
+     * @throws TimeoutException if the query does not resolve to a single element within the timeout
+     * @throws WebDriverException if the xpath found locally matches several elements in the unchanged page
+     */
+    public WebElement awaitWebElement(AnchorQuery query, long timeout, TimeUnit unit)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long pollMillis = initialPollMillis;
+        long searchedVersion = -1;
+
+        while (true)
+        {
+            ActiveDocumentTracker.Snapshot snapshot = tracker.getSnapshot();
+
+            if (snapshot.getVersion() != searchedVersion)
+            {
+                searchedVersion = snapshot.getVersion();
+                pollMillis = initialPollMillis;
+                List<WebElement> found = find(snapshot.getDocument(), query);
+
+                if (found.size() == 1)
+                {
+                    return found.get(0);
+                }
+
+                if (found.size() > 1)
+                {
+                    if (tracker.getSnapshot().getVersion() == searchedVersion)
+                    {
+                        throw new WebDriverException(String.format("%s matches %d elements in the browser", query, found.size()));
+                    }
+
+                    //the page changed between the local search and the browser lookup, the new page is searched at once
+                    pollMillis = 0;
+                }
+            }
+            else
+            {
+                pollMillis = Math.min(pollMillis * 2, maxPollMillis);
+            }
+
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+            if (remainingMillis <= 0)
+            {
+                throw new TimeoutException(String.format("Timed out after %d %s waiting for %s", timeout, unit, query));
+            }
+
+            Thread.sleep(Math.min(pollMillis, remainingMillis));
+        }
+    }
+
+    private List<WebElement> find(Document document, AnchorQuery query)
+    {
+        String xpath = resolver.getXpaths(document, Collections.singletonList(query)).get(0);
+        return xpath == null ? Collections.emptyList() : driver.findElements(By.xpath(xpath));
+    }
+}
@@ -0,0 +1,266 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the relative xpaths DomUtil emits, i.e. //div[div[contains(text(),"Username")]]/input[@id="username"],
+ * from an anchor element and a target element: the common ancestor of both, a predicate locating the anchor by its
+ * own text below it and the child steps down to the target with its attribute predicates.
+ * Steps and predicates are appended to a reusable per-thread StringBuilder, so that the only allocations per xpath are
+ * the anchor own text and the resulting String. {@link #build(Element, List)} only builds the xpaths actually read.
+ */
+public class XpathBuilder
+{
+    public static final List<String> DEFAULT_ATTRIBUTE_NAMES = Collections.unmodifiableList(Arrays.asList("id", "jsname", "name"));
+
+    private static final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final List<String> attributeNames;
+
+    public XpathBuilder()
+    {
+        this(DEFAULT_ATTRIBUTE_NAMES);
+    }
+
+    /**
+     * @param attributeNames names of the target attributes used as predicates, in the order they are emitted
+     */
+    public XpathBuilder(List<String> attributeNames)
+    {
+        this.attributeNames = Collections.unmodifiableList(attributeNames);
+    }
+
+    public String build(Element anchor, Element target)
+    {
+        StringBuilder builder = builders.get();
+        builder.setLength(0);
+        append(builder, anchor, target);
+        return builder.toString();
+    }
+
+    /**
+     * Xpaths of the targets relative to the anchor, each one built when it is first read
+     */
+    public List<String> build(Element anchor, List<Element> targets)
+    {
+        return new LazyXpaths(anchor, targets);
+    }
+
+    /**
+     * Absolute positional xpath of the element, i.e. /html/body/div[2]/input, with a position only where the parent has
+     * more than one child of the same tag
+     */
+    public String buildAbsolute(Element element)
+    {
+        StringBuilder builder = builders.get();
+        builder.setLength(0);
+        appendAbsolute(builder, element);
+        return builder.toString();
+    }
+
+    /**
+     * XPath 1.0 string literal of the text, using concat() when it contains both kinds of quotes
+     */
+    public static String quote(String text)
+    {
+        StringBuilder builder = new StringBuilder(text.length() + 2);
+        appendLiteral(builder, text);
+        return builder.toString();
+    }
+
+    private void append(StringBuilder builder, Element anchor, Element target)
+    {
+        Element ancestor = getLowestCommonAncestor(anchor, target);
+        builder.append("//").append(ancestor.tagName());
+
+        if (ancestor == target)
+        {
+            appendAttributePredicates(builder, target);
+        }
+
+        if (ancestor == anchor)
+        {
+            appendTextPredicate(builder, anchor);
+        }
+        else
+        {
+            builder.append('[');
+            appendSteps(builder, ancestor, anchor.parent());
+            builder.append(anchor.tagName());
+            appendTextPredicate(builder, anchor);
+            builder.append(']');
+        }
+
+        if (ancestor != target)
+        {
+            builder.append('/');
+            appendSteps(builder, ancestor, target.parent());
+            builder.append(target.tagName());
+            appendAttributePredicates(builder, target);
+        }
+    }
+
+    private static void appendAbsolute(StringBuilder builder, Element element)
+    {
+        Element parent = element.parent();
+
+        if (parent == null)
+        {
+            return;
+        }
+
+        appendAbsolute(builder, parent);
+        builder.append('/').append(element.tagName());
+        int position = 0;
+        int count = 0;
+
+        for (Node sibling : parent.childNodes())
+        {
+            if (sibling instanceof Element && ((Element) sibling).tagName().equals(element.tagName()))
+            {
+                count++;
+
+                if (sibling == element)
+                {
+                    position = count;
+                }
+            }
+        }
+
+        if (count > 1)
+        {
+            builder.append('[').append(position).append(']');
+        }
+    }
+
+    /**
+     * Child steps from below the ancestor down to and including the element, each followed by '/'
+     */
+    private static void appendSteps(StringBuilder builder, Element ancestor, Element element)
+    {
+        if (element == ancestor)
+        {
+            return;
+        }
+
+        appendSteps(builder, ancestor, element.parent());
+        builder.append(element.tagName()).append('/');
+    }
+
+    private static void appendTextPredicate(StringBuilder builder, Element anchor)
+    {
+        builder.append("[contains(text(),");
+        appendLiteral(builder, anchor.ownText().trim());
+        builder.append(")]");
+    }
+
+    private void appendAttributePredicates(StringBuilder builder, Element target)
+    {
+        for (String attributeName : attributeNames)
+        {
+            if (target.hasAttr(attributeName))
+            {
+                builder.append("[@").append(attributeName).append('=');
+                appendLiteral(builder, target.attr(attributeName));
+                builder.append(']');
+            }
+        }
+    }
+
+    private static void appendLiteral(StringBuilder builder, String text)
+    {
+        if (text.indexOf('"') < 0)
+        {
+            builder.append('"').append(text).append('"');
+        }
+        else if (text.indexOf('\'') < 0)
+        {
+            builder.append('\'').append(text).append('\'');
+        }
+        else
+        {
+            builder.append("concat(");
+            int start = 0;
+
+            for (int quote = text.indexOf('"'); quote >= 0; quote = text.indexOf('"', start))
+            {
+                builder.append('"').append(text, start, quote).append("\",'\"',");
+                start = quote + 1;
+            }
+
+            builder.append('"').append(text, start, text.length()).append("\")");
+        }
+    }
+
+    private static Element getLowestCommonAncestor(Element first, Element second)
+    {
+        int firstDepth = depth(first);
+        int secondDepth = depth(second);
+
+        for (; firstDepth > secondDepth; firstDepth--)
+        {
+            first = first.parent();
+        }
+
+        for (; secondDepth > firstDepth; secondDepth--)
+        {
+            second = second.parent();
+        }
+
+        while (first != second)
+        {
+            first = first.parent();
+            second = second.parent();
+        }
+
+        return first;
+    }
+
+    private static int depth(Element element)
+    {
+        int depth = 0;
+
+        for (Element parent = element.parent(); parent != null; parent = parent.parent())
+        {
+            depth++;
+        }
+
+        return depth;
+    }
+
+    private class LazyXpaths extends AbstractList<String>
+    {
+        private final Element anchor;
+        private final List<Element> targets;
+        private final String[] xpaths;
+
+        LazyXpaths(Element anchor, List<Element> targets)
+        {
+            this.anchor = anchor;
+            this.targets = targets;
+            xpaths = new String[targets.size()];
+        }
+
+        @Override
+        public String get(int index)
+        {
+            if (xpaths[index] == null)
+            {
+                xpaths[index] = XpathBuilder.this.build(anchor, targets.get(index));
+            }
+
+            return xpaths[index];
+        }
+
+        @Override
+        public int size()
+        {
+            return xpaths.length;
+        }
+    }
+}
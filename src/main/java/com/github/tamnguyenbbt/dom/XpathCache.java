@@ -0,0 +1,320 @@
+package com.github.tamnguyenbbt.dom;
+
+import com.github.tamnguyenbbt.exception.AmbiguousAnchorElementsException;
+import com.github.tamnguyenbbt.exception.AmbiguousFoundXpathsException;
+import com.github.tamnguyenbbt.exception.AnchorIndexIfMultipleFoundOutOfBoundException;
+import org.jsoup.nodes.Document;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memoizes the xpaths DomUtil generates, keyed by the {@link DocumentFingerprint} and the node count of the Document
+ * plus the anchor and target selector, so that a hit needs two pages agreeing on both. Running the same lookups against
+ * an unchanged page, even a freshly parsed copy of it, skips the anchor search and xpath generation on a hit. A null
+ * result of DomUtil is cached too.
+ * The fingerprint is computed once per Document, call DomIndex.invalidate after mutating a Document it has seen.
+ * The cache is bounded and evicts the least recently used entry. It is safe to share between threads.
+ */
+public class XpathCache
+{
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    //stands for a null result, which get() cannot tell from a missing entry
+    private static final List<String> NO_XPATHS = Collections.unmodifiableList(new ArrayList<>());
+
+    private final DomUtil domUtil;
+    private final Map<Key, List<String>> entries;
+    private long hitCount;
+    private long missCount;
+
+    public XpathCache()
+    {
+        this(new DomUtil(), DEFAULT_MAX_SIZE);
+    }
+
+    public XpathCache(DomUtil domUtil, int maxSize)
+    {
+        this.domUtil = domUtil;
+        entries = new LinkedHashMap<Key, List<String>>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<String>> eldest)
+            {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public List<String> getXpaths(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        Key key = new Key(document, "getXpaths", anchorElementOwnText, searchCssQuery);
+        List<String> xpaths = get(key);
+
+        if (xpaths == null)
+        {
+            xpaths = put(key, domUtil.getXpaths(document, anchorElementOwnText, searchCssQuery));
+        }
+
+        return xpaths == NO_XPATHS ? null : xpaths;
+    }
+
+    public List<String> getXpaths(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        Key key = new Key(document, "getXpaths", anchorElementTagName, anchorElementOwnText, searchCssQuery);
+        List<String> xpaths = get(key);
+
+        if (xpaths == null)
+        {
+            xpaths = put(key, domUtil.getXpaths(document, anchorElementTagName, anchorElementOwnText, searchCssQuery));
+        }
+
+        return xpaths == NO_XPATHS ? null : xpaths;
+    }
+
+    public List<String> getXpaths(Document document, ElementInfo anchorElementInfo, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AnchorIndexIfMultipleFoundOutOfBoundException
+    {
+        Key key = new Key(document, "getXpaths", describe(anchorElementInfo), searchCssQuery);
+        List<String> xpaths = get(key);
+
+        if (xpaths == null)
+        {
+            xpaths = put(key, domUtil.getXpaths(document, anchorElementInfo, searchCssQuery));
+        }
+
+        return xpaths == NO_XPATHS ? null : xpaths;
+    }
+
+    public String getXpath(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        Key key = new Key(document, "getXpath", anchorElementOwnText, searchCssQuery);
+        List<String> xpath = get(key);
+
+        if (xpath == null)
+        {
+            xpath = put(key, Collections.singletonList(domUtil.getXpath(document, anchorElementOwnText, searchCssQuery)));
+        }
+
+        return xpath.get(0);
+    }
+
+    public String getXpath(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        Key key = new Key(document, "getXpath", anchorElementTagName, anchorElementOwnText, searchCssQuery);
+        List<String> xpath = get(key);
+
+        if (xpath == null)
+        {
+            String found = domUtil.getXpath(document, anchorElementTagName, anchorElementOwnText, searchCssQuery);
+            xpath = put(key, Collections.singletonList(found));
+        }
+
+        return xpath.get(0);
+    }
+
+    public List<String> getXpathsExactMatch(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        Key key = new Key(document, "getXpathsExactMatch", anchorElementOwnText, searchCssQuery);
+        List<String> xpaths = get(key);
+
+        if (xpaths == null)
+        {
+            xpaths = put(key, domUtil.getXpathsExactMatch(document, anchorElementOwnText, searchCssQuery));
+        }
+
+        return xpaths == NO_XPATHS ? null : xpaths;
+    }
+
+    public List<String> getXpathsExactMatch(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException
+    {
+        Key key = new Key(document, "getXpathsExactMatch", anchorElementTagName, anchorElementOwnText, searchCssQuery);
+        List<String> xpaths = get(key);
+
+        if (xpaths == null)
+        {
+            xpaths = put(key, domUtil.getXpathsExactMatch(document, anchorElementTagName, anchorElementOwnText, searchCssQuery));
+        }
+
+        return xpaths == NO_XPATHS ? null : xpaths;
+    }
+
+    public List<String> getXpathsBestEffort(Document document, String anchorElementOwnText, String searchCssQuery)
+    {
+        Key key = new Key(document, "getXpathsBestEffort", anchorElementOwnText, searchCssQuery);
+        List<String> xpaths = get(key);
+
+        if (xpaths == null)
+        {
+            xpaths = put(key, domUtil.getXpathsBestEffort(document, anchorElementOwnText, searchCssQuery));
+        }
+
+        return xpaths == NO_XPATHS ? null : xpaths;
+    }
+
+    public List<String> getXpathsBestEffort(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+    {
+        Key key = new Key(document, "getXpathsBestEffort", anchorElementTagName, anchorElementOwnText, searchCssQuery);
+        List<String> xpaths = get(key);
+
+        if (xpaths == null)
+        {
+            xpaths = put(key, domUtil.getXpathsBestEffort(document, anchorElementTagName, anchorElementOwnText, searchCssQuery));
+        }
+
+        return xpaths == NO_XPATHS ? null : xpaths;
+    }
+
+    public String getXpathExactMatch(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        Key key = new Key(document, "getXpathExactMatch", anchorElementOwnText, searchCssQuery);
+        List<String> xpath = get(key);
+
+        if (xpath == null)
+        {
+            xpath = put(key, Collections.singletonList(domUtil.getXpathExactMatch(document, anchorElementOwnText, searchCssQuery)));
+        }
+
+        return xpath.get(0);
+    }
+
+    public String getXpathExactMatch(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        Key key = new Key(document, "getXpathExactMatch", anchorElementTagName, anchorElementOwnText, searchCssQuery);
+        List<String> xpath = get(key);
+
+        if (xpath == null)
+        {
+            String found = domUtil.getXpathExactMatch(document, anchorElementTagName, anchorElementOwnText, searchCssQuery);
+            xpath = put(key, Collections.singletonList(found));
+        }
+
+        return xpath.get(0);
+    }
+
+    public String getXpathBestEffort(Document document, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousFoundXpathsException
+    {
+        Key key = new Key(document, "getXpathBestEffort", anchorElementOwnText, searchCssQuery);
+        List<String> xpath = get(key);
+
+        if (xpath == null)
+        {
+            xpath = put(key, Collections.singletonList(domUtil.getXpathBestEffort(document, anchorElementOwnText, searchCssQuery)));
+        }
+
+        return xpath.get(0);
+    }
+
+    public String getXpathBestEffort(Document document, String anchorElementTagName, String anchorElementOwnText, String searchCssQuery)
+            throws AmbiguousFoundXpathsException
+    {
+        Key key = new Key(document, "getXpathBestEffort", anchorElementTagName, anchorElementOwnText, searchCssQuery);
+        List<String> xpath = get(key);
+
+        if (xpath == null)
+        {
+            String found = domUtil.getXpathBestEffort(document, anchorElementTagName, anchorElementOwnText, searchCssQuery);
+            xpath = put(key, Collections.singletonList(found));
+        }
+
+        return xpath.get(0);
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    private synchronized List<String> get(Key key)
+    {
+        List<String> xpaths = entries.get(key);
+
+        if (xpaths == null)
+        {
+            missCount++;
+        }
+        else
+        {
+            hitCount++;
+        }
+
+        return xpaths;
+    }
+
+    private synchronized List<String> put(Key key, List<String> xpaths)
+    {
+        List<String> copy = xpaths == null ? NO_XPATHS : Collections.unmodifiableList(new ArrayList<>(xpaths));
+        entries.put(key, copy);
+        return copy;
+    }
+
+    /**
+     * The fields of the element info the anchor search depends on, so that any search condition change makes a
+     * different key
+     */
+    private static List<Object> describe(ElementInfo elementInfo)
+    {
+        return Arrays.asList(elementInfo.tagName, elementInfo.ownText, elementInfo.indexIfMultipleFound,
+                elementInfo.condition.whereIgnoreCaseForOwnText, elementInfo.condition.whereOwnTextContainingPattern);
+    }
+
+    private static class Key
+    {
+        private final long fingerprint;
+        private final int nodeCount;
+        private final List<Object> arguments;
+
+        Key(Document document, Object... arguments)
+        {
+            DocumentFingerprint documentFingerprint = DocumentFingerprint.get(document);
+            fingerprint = documentFingerprint.getHash();
+            nodeCount = documentFingerprint.getNodeCount();
+            this.arguments = Arrays.asList(arguments);
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof Key))
+            {
+                return false;
+            }
+
+            Key key = (Key) other;
+            return fingerprint == key.fingerprint && nodeCount == key.nodeCount && arguments.equals(key.arguments);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * Long.hashCode(fingerprint) + arguments.hashCode();
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates the xpath subset DomUtil emits directly over a jsoup tree, so that generated xpaths can be checked for
+ * uniqueness without a browser round-trip.
+ * Supported: absolute paths made of child (/) and descendant (//) steps with a tag name or *, and predicates
+ * contains(text(),'...'), contains(@attr,'...'), text()='...', @attr='...', @attr, a position [n] and relative
+ * element paths such as [div/span[contains(text(),'...')]]. String literals may be single or double quoted or built
+ * with concat(). Anything else is rejected with an IllegalArgumentException when compiling.
+ */
+public class XpathEvaluator
+{
+    private final List<Step> steps;
+
+    private XpathEvaluator(List<Step> steps)
+    {
+        this.steps = steps;
+    }
+
+    public static XpathEvaluator compile(String xpath)
+    {
+        Parser parser = new Parser(xpath);
+        List<Step> steps = parser.parsePath(true);
+
+        if (steps.isEmpty() || !parser.isAtEnd())
+        {
+            throw parser.error("unexpected input");
+        }
+
+        return new XpathEvaluator(steps);
+    }
+
+    public static List<Element> select(Document document, String xpath)
+    {
+        return compile(xpath).evaluate(document);
+    }
+
+    /**
+     * True when the xpath matches exactly one element of the document
+     */
+    public static boolean isUnique(Document document, String xpath)
+    {
+        return select(document, xpath).size() == 1;
+    }
+
+    /**
+     * Elements matching the xpath, in document order
+     */
+    public List<Element> evaluate(Element root)
+    {
+        List<Element> found = evaluate(steps, root);
+        return found.size() > 1 ? sortInDocumentOrder(root, found) : found;
+    }
+
+    /**
+     * One preorder walk of the root subtree, stopping at the last found element
+     */
+    private static List<Element> sortInDocumentOrder(Element root, List<Element> found)
+    {
+        Map<Element, Boolean> remaining = new IdentityHashMap<>();
+
+        for (Element element : found)
+        {
+            remaining.put(element, Boolean.TRUE);
+        }
+
+        List<Element> sorted = new ArrayList<>(found.size());
+        Deque<Element> stack = new ArrayDeque<>();
+        stack.push(root);
+
+        while (!stack.isEmpty() && !remaining.isEmpty())
+        {
+            Element element = stack.pop();
+
+            if (remaining.remove(element) != null)
+            {
+                sorted.add(element);
+            }
+
+            List<Node> children = element.childNodes();
+
+            for (int i = children.size() - 1; i >= 0; i--)
+            {
+                if (children.get(i) instanceof Element)
+                {
+                    stack.push((Element) children.get(i));
+                }
+            }
+        }
+
+        return sorted;
+    }
+
+    private static List<Element> evaluate(List<Step> steps, Element context)
+    {
+        List<Element> current = new ArrayList<>();
+        current.add(context);
+
+        for (Step step : steps)
+        {
+            Map<Element, Boolean> seen = new IdentityHashMap<>();
+            List<Element> next = new ArrayList<>();
+
+            for (Element element : current)
+            {
+                List<Element> parents = step.descendant ? getSelfAndDescendants(element) : Collections.singletonList(element);
+
+                for (Element parent : parents)
+                {
+                    for (Element child : step.select(parent))
+                    {
+                        if (seen.put(child, Boolean.TRUE) == null)
+                        {
+                            next.add(child);
+                        }
+                    }
+                }
+            }
+
+            current = next;
+
+            if (current.isEmpty())
+            {
+                break;
+            }
+        }
+
+        return current;
+    }
+
+    private static List<Element> getSelfAndDescendants(Element element)
+    {
+        List<Element> elements = new ArrayList<>();
+        elements.add(element);
+
+        for (int i = 0; i < elements.size(); i++)
+        {
+            for (Node child : elements.get(i).childNodes())
+            {
+                if (child instanceof Element)
+                {
+                    elements.add((Element) child);
+                }
+            }
+        }
+
+        return elements;
+    }
+
+    private static String getFirstText(Element element)
+    {
+        for (Node child : element.childNodes())
+        {
+            if (child instanceof TextNode)
+            {
+                return ((TextNode) child).getWholeText();
+            }
+        }
+
+        return "";
+    }
+
+    private static class Step
+    {
+        private final boolean descendant;
+        private final String name;
+        private final List<Predicate> predicates = new ArrayList<>();
+
+        Step(boolean descendant, String name)
+        {
+            this.descendant = descendant;
+            this.name = name;
+        }
+
+        List<Element> select(Element parent)
+        {
+            List<Element> selected = new ArrayList<>();
+
+            for (Node child : parent.childNodes())
+            {
+                if (child instanceof Element && ("*".equals(name) || name.equalsIgnoreCase(((Element) child).tagName())))
+                {
+                    selected.add((Element) child);
+                }
+            }
+
+            for (Predicate predicate : predicates)
+            {
+                List<Element> filtered = new ArrayList<>();
+
+                for (int i = 0; i < selected.size(); i++)
+                {
+                    if (predicate.test(selected.get(i), i + 1))
+                    {
+                        filtered.add(selected.get(i));
+                    }
+                }
+
+                selected = filtered;
+            }
+
+            return selected;
+        }
+    }
+
+    private interface Predicate
+    {
+        boolean test(Element element, int position);
+    }
+
+    private static class Parser
+    {
+        private final String xpath;
+        private int index;
+
+        Parser(String xpath)
+        {
+            this.xpath = xpath;
+        }
+
+        boolean isAtEnd()
+        {
+            skipSpaces();
+            return index == xpath.length();
+        }
+
+        List<Step> parsePath(boolean absolute)
+        {
+            List<Step> steps = new ArrayList<>();
+            boolean first = true;
+
+            while (true)
+            {
+                skipSpaces();
+                boolean descendant;
+
+                if (consume("//"))
+                {
+                    descendant = true;
+                }
+                else if (consume("/"))
+                {
+                    descendant = false;
+                }
+                else if (first && !absolute)
+                {
+                    descendant = consume(".//");
+                    consume("./");
+                }
+                else
+                {
+                    return steps;
+                }
+
+                first = false;
+                Step step = new Step(descendant, parseName());
+
+                while (consume("["))
+                {
+                    step.predicates.add(parsePredicate());
+                    expect("]");
+                }
+
+                steps.add(step);
+            }
+        }
+
+        private Predicate parsePredicate()
+        {
+            skipSpaces();
+
+            if (consume("contains("))
+            {
+                skipSpaces();
+                String attributeName = consume("text()") ? null : parseAttributeName();
+                expect(",");
+                String literal = parseLiteral();
+                expect(")");
+                return (element, position) -> attributeName == null
+                        ? getFirstText(element).contains(literal)
+                        : element.hasAttr(attributeName) && element.attr(attributeName).contains(literal);
+            }
+
+            if (consume("text()"))
+            {
+                expect("=");
+                String literal = parseLiteral();
+                return (element, position) -> hasTextNode(element, literal);
+            }
+
+            if (peek() == '@')
+            {
+                String attributeName = parseAttributeName();
+                skipSpaces();
+
+                if (!consume("="))
+                {
+                    return (element, position) -> element.hasAttr(attributeName);
+                }
+
+                String literal = parseLiteral();
+                return (element, position) -> element.hasAttr(attributeName) && element.attr(attributeName).equals(literal);
+            }
+
+            if (Character.isDigit(peek()))
+            {
+                int start = index;
+
+                while (Character.isDigit(peek()))
+                {
+                    index++;
+                }
+
+                int expected = Integer.parseInt(xpath.substring(start, index));
+                return (element, position) -> position == expected;
+            }
+
+            List<Step> path = parsePath(false);
+
+            if (path.isEmpty())
+            {
+                throw error("unsupported predicate");
+            }
+
+            return (element, position) -> !evaluate(path, element).isEmpty();
+        }
+
+        private static boolean hasTextNode(Element element, String text)
+        {
+            for (Node child : element.childNodes())
+            {
+                if (child instanceof TextNode && ((TextNode) child).getWholeText().equals(text))
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private String parseAttributeName()
+        {
+            expect("@");
+            return parseName();
+        }
+
+        private String parseName()
+        {
+            skipSpaces();
+            int start = index;
+
+            if (consume("*"))
+            {
+                return "*";
+            }
+
+            while (index < xpath.length() && (Character.isLetterOrDigit(xpath.charAt(index)) || "-_:.".indexOf(xpath.charAt(index)) >= 0))
+            {
+                index++;
+            }
+
+            if (start == index || xpath.charAt(index - 1) == '.' || xpath.startsWith("(", index))
+            {
+                throw error("expected a name");
+            }
+
+            return xpath.substring(start, index);
+        }
+
+        private String parseLiteral()
+        {
+            skipSpaces();
+
+            if (consume("concat("))
+            {
+                StringBuilder builder = new StringBuilder(parseLiteral());
+
+                while (consume(","))
+                {
+                    builder.append(parseLiteral());
+                }
+
+                expect(")");
+                return builder.toString();
+            }
+
+            char quote = peek();
+
+            if (quote != '"' && quote != '\'')
+            {
+                throw error("expected a string literal");
+            }
+
+            int end = xpath.indexOf(quote, index + 1);
+
+            if (end < 0)
+            {
+                throw error("unterminated string literal");
+            }
+
+            String literal = xpath.substring(index + 1, end);
+            index = end + 1;
+            skipSpaces();
+            return literal;
+        }
+
+        private char peek()
+        {
+            return index < xpath.length() ? xpath.charAt(index) : '\0';
+        }
+
+        private boolean consume(String expected)
+        {
+            skipSpaces();
+
+            if (xpath.startsWith(expected, index))
+            {
+                index += expected.length();
+                return true;
+            }
+
+            return false;
+        }
+
+        private void expect(String expected)
+        {
+            if (!consume(expected))
+            {
+                throw error("expected '" + expected + "'");
+            }
+        }
+
+        private void skipSpaces()
+        {
+            while (index < xpath.length() && Character.isWhitespace(xpath.charAt(index)))
+            {
+                index++;
+            }
+        }
+
+        IllegalArgumentException error(String message)
+        {
+            return new IllegalArgumentException(String.format("Unsupported xpath '%s' at %d: %s", xpath, index, message));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.tamnguyenbbt.dom;
+
+import org.jsoup.nodes.Element;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, thread-safe index of elements to their xpaths, in the order they were indexed
+ */
+public class XpathIndex
+{
+    private final List<Element> elements;
+    private final List<String> xpaths;
+    private final Map<Element, String> xpathsByElement;
+
+    XpathIndex(List<Element> elements, List<String> xpaths)
+    {
+        this.elements = Collections.unmodifiableList(new ArrayList<>(elements));
+        this.xpaths = Collections.unmodifiableList(new ArrayList<>(xpaths));
+        Map<Element, String> byElement = new IdentityHashMap<>();
+
+        for (int i = 0; i < elements.size(); i++)
+        {
+            byElement.put(elements.get(i), xpaths.get(i));
+        }
+
+        xpathsByElement = Collections.unmodifiableMap(byElement);
+    }
+
+    public int size()
+    {
+        return elements.size();
+    }
+
+    public List<Element> getElements()
+    {
+        return elements;
+    }
+
+    public List<String> getXpaths()
+    {
+        return xpaths;
+    }
+
+    /**
+     * The xpath of the element or null if it is not indexed
+     */
+    public String getXpath(Element element)
+    {
+        return xpathsByElement.get(element);
+    }
+}
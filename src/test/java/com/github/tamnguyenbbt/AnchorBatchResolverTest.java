@@ -0,0 +1,152 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.AnchorBatchResolver;
+import com.github.tamnguyenbbt.dom.AnchorQuery;
+import com.github.tamnguyenbbt.dom.AnchorResolution;
+import com.github.tamnguyenbbt.dom.AnchorSearchMode;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.ElementInfo;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class AnchorBatchResolverTest
+{
+    private Document document;
+    private AnchorBatchResolver resolver;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+        resolver = new AnchorBatchResolver();
+    }
+
+    @Test
+    public void resolve_batch_equals_resolving_each_query_alone()
+    {
+        //Arrange
+        ElementInfo anchorElementInfo = new ElementInfo();
+        anchorElementInfo.ownText = "userna";
+        anchorElementInfo.tagName = "div";
+        anchorElementInfo.indexIfMultipleFound = -1;
+        anchorElementInfo.condition.whereIgnoreCaseForOwnText = true;
+        anchorElementInfo.condition.whereOwnTextContainingPattern = true;
+
+        //overlapping patterns: one is a prefix, a suffix or an infix of another
+        List<AnchorQuery> queries = Arrays.asList(
+                new AnchorQuery("Username", "input"),
+                new AnchorQuery("User", "input"),
+                new AnchorQuery(null, "name", "input", AnchorSearchMode.BEST_EFFORT),
+                new AnchorQuery(null, "sername", "input", AnchorSearchMode.BEST_EFFORT),
+                new AnchorQuery(null, "Last name", "input", AnchorSearchMode.EXACT_MATCH),
+                new AnchorQuery(null, "last name", "input", AnchorSearchMode.EXACT_MATCH),
+                new AnchorQuery(anchorElementInfo, "input"),
+                new AnchorQuery("Password", "input[type=password]"),
+                new AnchorQuery("No such anchor text", "input"));
+
+        //Act
+        List<AnchorResolution> resolutions = resolver.resolve(document, queries);
+
+        //Assert
+        Assert.assertEquals(queries.size(), resolutions.size());
+
+        for (int i = 0; i < queries.size(); i++)
+        {
+            AnchorResolution alone = resolver.resolve(document, Collections.singletonList(queries.get(i))).get(0);
+            Assert.assertEquals(queries.get(i).toString(), alone.getStatus(), resolutions.get(i).getStatus());
+            Assert.assertEquals(queries.get(i).toString(), alone.getAnchorElements(), resolutions.get(i).getAnchorElements());
+            Assert.assertEquals(queries.get(i).toString(), alone.getElements(), resolutions.get(i).getElements());
+        }
+    }
+
+    @Test
+    public void resolve_overlapping_patterns_finds_every_anchor()
+    {
+        //Arrange
+        List<AnchorQuery> queries = new ArrayList<>();
+
+        for (String pattern : new String[] {"name", "Username", "sername", "ser", "e"})
+        {
+            AnchorQuery query = new AnchorQuery(null, pattern, "input", AnchorSearchMode.BEST_EFFORT);
+            query.containingOnly = true;
+            queries.add(query);
+        }
+
+        //Act
+        List<AnchorResolution> resolutions = resolver.resolve(document, queries);
+
+        //Assert
+        for (int i = 0; i < queries.size(); i++)
+        {
+            List<Element> expectedAnchors = new ArrayList<>();
+
+            for (Element element : document.getAllElements())
+            {
+                if (element.ownText().trim().contains(queries.get(i).anchorOwnText))
+                {
+                    expectedAnchors.add(element);
+                }
+            }
+
+            Assert.assertFalse(expectedAnchors.isEmpty());
+            Assert.assertEquals(queries.get(i).anchorOwnText, expectedAnchors, resolutions.get(i).getAnchorElements());
+        }
+    }
+
+    @Test
+    public void resolve_ignore_case_and_containing()
+    {
+        //Arrange
+        AnchorQuery caseSensitive = new AnchorQuery(null, "username", "input", AnchorSearchMode.EXACT_MATCH);
+        AnchorQuery ignoreCase = new AnchorQuery(null, "username", "input", AnchorSearchMode.EXACT_MATCH);
+        ignoreCase.ignoreCase = true;
+        AnchorQuery containing = new AnchorQuery(null, "USERNA", "input", AnchorSearchMode.EXACT_MATCH);
+        containing.ignoreCase = true;
+        containing.containingOnly = true;
+
+        //Act
+        List<AnchorResolution> resolutions = resolver.resolve(document, Arrays.asList(caseSensitive, ignoreCase, containing));
+
+        //Assert
+        Assert.assertEquals(AnchorResolution.Status.NO_ANCHOR_ELEMENT_FOUND, resolutions.get(0).getStatus());
+        Assert.assertEquals("Username", resolutions.get(1).getAnchorElements().get(0).ownText().trim());
+        Assert.assertEquals(resolutions.get(1).getAnchorElements(), resolutions.get(2).getAnchorElements());
+        Assert.assertEquals("username", resolutions.get(1).getElement().id());
+        Assert.assertEquals("username", resolutions.get(2).getElement().id());
+    }
+
+    @Test
+    public void resolve_empty_own_text_as_equals_and_contains_do()
+    {
+        //Arrange
+        AnchorQuery exact = new AnchorQuery("span", "", "input", AnchorSearchMode.EXACT_MATCH);
+        AnchorQuery containing = new AnchorQuery("span", " ", "input", AnchorSearchMode.EXACT_MATCH);
+        containing.containingOnly = true;
+        List<Element> emptySpans = new ArrayList<>();
+
+        for (Element span : document.getElementsByTag("span"))
+        {
+            if (span.ownText().trim().equals(""))
+            {
+                emptySpans.add(span);
+            }
+        }
+
+        //Act
+        List<AnchorResolution> resolutions = resolver.resolve(document, Arrays.asList(exact, containing));
+
+        //Assert
+        Assert.assertFalse(emptySpans.isEmpty());
+        Assert.assertEquals(emptySpans, resolutions.get(0).getAnchorElements());
+        Assert.assertEquals(document.getElementsByTag("span"), resolutions.get(1).getAnchorElements());
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.AsyncDomUtil;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.JsoupWebDriver;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+public class AsyncDomUtilTest
+{
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+    private ExecutorService cpuExecutor;
+    private ExecutorService ioExecutor;
+    private JsoupWebDriver driver;
+    private DomUtil domUtil;
+
+    @Before
+    public void init()
+    {
+        cpuExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "cpu"));
+        ioExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "io"));
+        driver = new JsoupWebDriver(Jsoup.parse("<html><body><div><div>Username</div><input id=\"username\"></div></body></html>"))
+        {
+            @Override
+            public WebElement findElement(By by)
+            {
+                threads.add("findElement:" + Thread.currentThread().getName());
+                return super.findElement(by);
+            }
+        };
+        domUtil = new DomUtil()
+        {
+            @Override
+            public Document getActiveDocument(WebDriver webDriver)
+            {
+                threads.add("getActiveDocument:" + Thread.currentThread().getName());
+                return Jsoup.parse(webDriver.getPageSource());
+            }
+
+            @Override
+            public String getXpath(Document document, String anchorElementOwnText, String searchCssQuery)
+            {
+                threads.add("getXpath:" + Thread.currentThread().getName());
+                return "Username".equals(anchorElementOwnText) ? "//div[div[contains(text(),\"Username\")]]/input[@id=\"username\"]" : "//missing";
+            }
+        };
+    }
+
+    @After
+    public void cleanUp()
+    {
+        cpuExecutor.shutdown();
+        ioExecutor.shutdown();
+    }
+
+    @Test
+    public void getWebElement_reads_the_page_and_finds_on_io_and_searches_on_cpu() throws Exception
+    {
+        //Arrange
+        AsyncDomUtil asyncDomUtil = new AsyncDomUtil(domUtil, cpuExecutor, ioExecutor);
+
+        //Act
+        WebElement webElement = asyncDomUtil.getWebElement(driver, "Username", "input").get();
+
+        //Assert
+        Assert.assertEquals("username", webElement.getAttribute("id"));
+        Assert.assertEquals(3, threads.size());
+        Assert.assertEquals("getActiveDocument:io", threads.get(0));
+        Assert.assertEquals("getXpath:cpu", threads.get(1));
+        Assert.assertEquals("findElement:io", threads.get(2));
+    }
+
+    @Test
+    public void getWebElement_completes_exceptionally_when_the_element_is_not_found() throws InterruptedException
+    {
+        //Arrange
+        AsyncDomUtil asyncDomUtil = new AsyncDomUtil(domUtil, cpuExecutor, ioExecutor);
+
+        try
+        {
+            //Act
+            asyncDomUtil.getWebElement(driver, "Password", "input").get();
+            Assert.fail();
+        }
+        catch (ExecutionException e)
+        {
+            //Assert
+            Assert.assertTrue(e.getCause() instanceof NoSuchElementException);
+        }
+    }
+
+    @Test
+    public void close_leaves_executors_passed_in_to_their_owner()
+    {
+        //Arrange
+        AsyncDomUtil asyncDomUtil = new AsyncDomUtil(domUtil, cpuExecutor, ioExecutor);
+
+        //Act
+        asyncDomUtil.close();
+
+        //Assert
+        Assert.assertFalse(cpuExecutor.isShutdown());
+        Assert.assertFalse(ioExecutor.isShutdown());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void close_shuts_down_the_io_pool_it_created()
+    {
+        //Arrange
+        AsyncDomUtil asyncDomUtil = new AsyncDomUtil();
+
+        //Act
+        asyncDomUtil.close();
+
+        //Assert
+        asyncDomUtil.getActiveDocument(driver);
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.BulkHtmlLoader;
+import com.github.tamnguyenbbt.dom.HtmlFileLoader;
+import org.jsoup.nodes.Document;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class BulkHtmlLoaderTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private byte[] page;
+    private Path directory;
+
+    @Before
+    public void init() throws IOException
+    {
+        page = Files.readAllBytes(new File(getClass().getClassLoader().getResource("google-signup.html").getFile()).toPath());
+        directory = temporaryFolder.newFolder("pages").toPath();
+        Files.write(directory.resolve("a.html"), page);
+        Files.write(directory.resolve("b.htm"), page);
+        Files.write(directory.resolve("notes.txt"), "not a page".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("broken.html.gz"), "not gzipped".getBytes(StandardCharsets.UTF_8));
+
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(directory.resolve("c.html.gz"))))
+        {
+            output.write(page);
+        }
+
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(directory.resolve("d.zip"))))
+        {
+            for (String entryName : new String[] {"site/e.html", "site/f.html", "site/readme.txt"})
+            {
+                output.putNextEntry(new ZipEntry(entryName));
+                output.write(page);
+                output.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    public void load_files_gzip_and_zip_entries() throws Exception
+    {
+        //Arrange
+        String expected = new HtmlFileLoader().load(directory.resolve("a.html")).outerHtml();
+        Map<String, String> consumed = new HashMap<>();
+        BulkHtmlLoader bulkHtmlLoader = new BulkHtmlLoader(new HtmlFileLoader(), 4, 2, true);
+
+        //Act
+        Map<String, Exception> failures = bulkHtmlLoader.load(directory, (source, document) ->
+        {
+            if (source.endsWith("f.html"))
+            {
+                throw new IllegalStateException("consumer failure");
+            }
+
+            consumed.put(source, document.outerHtml());
+        });
+
+        //Assert
+        Assert.assertEquals(new TreeSet<>(Arrays.asList(source("a.html"), source("b.htm"), source("c.html.gz"), source("d.zip!/site/e.html"))),
+                new TreeSet<>(consumed.keySet()));
+
+        for (String outerHtml : consumed.values())
+        {
+            Assert.assertEquals(expected, outerHtml);
+        }
+
+        Assert.assertEquals(new TreeSet<>(Arrays.asList(source("broken.html.gz"), source("d.zip!/site/f.html"))), failures.keySet());
+        Assert.assertTrue(failures.get(source("d.zip!/site/f.html")) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void load_keeps_in_flight_pages_bounded() throws Exception
+    {
+        //Arrange
+        for (int i = 0; i < 20; i++)
+        {
+            Files.write(directory.resolve("copy" + i + ".html"), page);
+        }
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger consumedCount = new AtomicInteger();
+        HtmlFileLoader countingLoader = new HtmlFileLoader()
+        {
+            @Override
+            public Document parse(ByteBuffer bytes, String baseUri)
+            {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return super.parse(bytes, baseUri);
+            }
+        };
+
+        //Act
+        new BulkHtmlLoader(countingLoader, 4, 2, true).load(directory, (source, document) ->
+        {
+            Thread.sleep(5);
+            consumedCount.incrementAndGet();
+            inFlight.decrementAndGet();
+        });
+
+        //Assert
+        Assert.assertEquals(25, consumedCount.get());
+        Assert.assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void load_with_non_positive_counts_uses_one_thread_and_one_page() throws Exception
+    {
+        //Arrange
+        AtomicInteger consumedCount = new AtomicInteger();
+
+        //Act
+        Map<String, Exception> failures = new BulkHtmlLoader(new HtmlFileLoader(), 0, 0, false)
+                .load(directory, (source, document) -> consumedCount.incrementAndGet());
+
+        //Assert
+        Assert.assertEquals(2, consumedCount.get());
+        Assert.assertTrue(failures.isEmpty());
+    }
+
+    private String source(String name)
+    {
+        return directory + File.separator + name;
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.AnchorBatchResolver;
+import com.github.tamnguyenbbt.dom.AnchorQuery;
+import com.github.tamnguyenbbt.dom.AnchorResolution;
+import com.github.tamnguyenbbt.dom.AnchorSearchMode;
+import com.github.tamnguyenbbt.dom.ClosestElementSearch;
+import com.github.tamnguyenbbt.dom.DomIndex;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Tag;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ClosestElementSearchTest
+{
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void getClosestElements_added_after_indexing()
+    {
+        //Arrange
+        Element anchor = DomIndex.of(document).getElementsMatchingOwnText("Username").get(0);
+        Element after = anchor.appendElement("input").attr("id", "after");
+        Element before = anchor.prependElement("input").attr("id", "before");
+
+        //Act
+        List<Element> elements = new ClosestElementSearch(document).getClosestElements(anchor, "input");
+
+        //Assert
+        Assert.assertEquals(2, elements.size());
+        Assert.assertSame(before, elements.get(0));
+        Assert.assertSame(after, elements.get(1));
+    }
+
+    @Test
+    public void getClosestElements_equals_the_ranked_search()
+    {
+        //Arrange
+        Set<String> ownTexts = new LinkedHashSet<>();
+
+        for (Element element : document.getAllElements())
+        {
+            if (!element.ownText().trim().isEmpty())
+            {
+                ownTexts.add(element.ownText().trim());
+            }
+        }
+
+        List<AnchorQuery> rankedQueries = new ArrayList<>();
+        List<AnchorQuery> outwardQueries = new ArrayList<>();
+
+        for (String ownText : ownTexts)
+        {
+            for (String targetSelector : new String[] {"input", "button", "div", "input[type=password], span"})
+            {
+                rankedQueries.add(new AnchorQuery(null, ownText, targetSelector, AnchorSearchMode.BEST_EFFORT));
+                AnchorQuery outwardQuery = new AnchorQuery(null, ownText, targetSelector, AnchorSearchMode.BEST_EFFORT);
+                outwardQuery.outwardSearch = true;
+                outwardQueries.add(outwardQuery);
+            }
+        }
+
+        //Act
+        List<AnchorResolution> ranked = new AnchorBatchResolver().resolve(document, rankedQueries);
+        List<AnchorResolution> outward = new AnchorBatchResolver().resolve(document, outwardQueries);
+
+        //Assert
+        Assert.assertFalse(ownTexts.isEmpty());
+
+        for (int i = 0; i < rankedQueries.size(); i++)
+        {
+            Assert.assertEquals(rankedQueries.get(i).toString(), ranked.get(i).getStatus(), outward.get(i).getStatus());
+            Assert.assertEquals(rankedQueries.get(i).toString(), ranked.get(i).getElements(), outward.get(i).getElements());
+        }
+    }
+
+    @Test
+    public void getClosestElements_stops_at_the_first_radius_with_a_match()
+    {
+        //Arrange
+        Document page = Jsoup.parse("<div id=\"near\"><label>Name</label><input id=\"name\"></div>"
+                + "<div id=\"far\"><div><input id=\"other\"></div></div>");
+        Element anchor = page.select("label").first();
+        VisitCountingElement farAway = new VisitCountingElement();
+        page.getElementById("other").after(farAway);
+        farAway.visits = 0;
+
+        //Act
+        List<Element> elements = new ClosestElementSearch(page).getClosestElements(anchor, "input, [data-probe]");
+        int visitsWithCloseMatch = farAway.visits;
+        List<Element> farElements = new ClosestElementSearch(page).getClosestElements(anchor, "#other, [data-probe]");
+
+        //Assert
+        Assert.assertEquals(Collections.singletonList(page.getElementById("name")), elements);
+        Assert.assertEquals(0, visitsWithCloseMatch);
+        Assert.assertEquals(Collections.singletonList(page.getElementById("other")), farElements);
+        Assert.assertTrue(farAway.visits > 0);
+    }
+
+    @Test
+    public void getClosestElements_within_max_radius()
+    {
+        //Arrange
+        Document page = Jsoup.parse("<div id=\"near\"><label>Name</label><input id=\"name\"></div>"
+                + "<div id=\"far\"><div><input id=\"other\"></div></div>");
+        Element anchor = page.select("label").first();
+        VisitCountingElement farAway = new VisitCountingElement();
+        page.getElementById("other").after(farAway);
+        farAway.visits = 0;
+
+        //Act
+        List<Element> outOfRadius = new ClosestElementSearch(page, 1).getClosestElements(anchor, "input");
+        List<Element> atRadius = new ClosestElementSearch(page, 2).getClosestElements(anchor, "input");
+        List<Element> farOutOfRadius = new ClosestElementSearch(page, 4).getClosestElements(anchor, "#other, [data-probe]");
+        int visitsWithinRadius = farAway.visits;
+        List<Element> farAtRadius = new ClosestElementSearch(page, 5).getClosestElements(anchor, "#other");
+
+        //Assert
+        Assert.assertTrue(outOfRadius.isEmpty());
+        Assert.assertEquals(Collections.singletonList(page.getElementById("name")), atRadius);
+        Assert.assertTrue(farOutOfRadius.isEmpty());
+        Assert.assertEquals(0, visitsWithinRadius);
+        Assert.assertEquals(Collections.singletonList(page.getElementById("other")), farAtRadius);
+    }
+
+    /**
+     * Counts how many times the [data-probe] part of the target selector reads its attributes, i.e. the search visits it
+     */
+    private static class VisitCountingElement extends Element
+    {
+        private int visits;
+
+        VisitCountingElement()
+        {
+            super(Tag.valueOf("span"), "");
+        }
+
+        @Override
+        public boolean hasAttr(String attributeKey)
+        {
+            visits++;
+            return super.hasAttr(attributeKey);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.CssSelectorBuilder;
+import com.github.tamnguyenbbt.dom.CssSelectorUtil;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.exception.AmbiguousAnchorElementsException;
+import com.github.tamnguyenbbt.exception.AmbiguousFoundXpathsException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class CssSelectorUtilTest
+{
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void getCssSelector() throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        //Arrange
+        String expectedCssSelector = "input[id=\"username\"][jsname=\"YPqjbf\"][name=\"Username\"]";
+
+        //Act
+        String cssSelector = new CssSelectorUtil().getCssSelector(document, "div", "Username", "input");
+
+        //Assert
+        Assert.assertEquals(expectedCssSelector, cssSelector);
+        Assert.assertEquals(1, document.select(cssSelector).size());
+        Assert.assertSame(document.getElementById("username"), document.select(cssSelector).first());
+    }
+
+    @Test
+    public void getCssSelectors_line_up_with_the_xpaths() throws AmbiguousAnchorElementsException
+    {
+        //Arrange
+        Document page = Jsoup.parse("<html><body><div><span>First</span><span>Second</span><input id=\"name\"></div></body></html>");
+        List<String> xpaths = Arrays.asList("//span[contains(text(),\"Second\")]", "//input[@id=\"name\"]");
+        DomUtil domUtil = new DomUtil()
+        {
+            @Override
+            public List<String> getXpaths(Document document, String anchorElementOwnText, String searchCssQuery)
+            {
+                return xpaths;
+            }
+        };
+
+        //Act
+        List<String> cssSelectors = new CssSelectorUtil(domUtil, new CssSelectorBuilder()).getCssSelectors(page, "Name", "span, input");
+
+        //Assert
+        Assert.assertEquals(Arrays.asList(null, "input[id=\"name\"]"), cssSelectors);
+    }
+
+    @Test
+    public void build_unique_css_selector()
+    {
+        //Arrange
+        CssSelectorBuilder cssSelectorBuilder = new CssSelectorBuilder();
+
+        for (Element element : document.select("input[type=text], input[type=password]"))
+        {
+            //Act
+            String cssSelector = cssSelectorBuilder.build(element);
+
+            //Assert
+            List<Element> found = document.select(cssSelector);
+            Assert.assertEquals(cssSelector, 1, found.size());
+            Assert.assertSame(element, found.get(0));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DomIndex;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.ElementInfo;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class DomIndexTest
+{
+    private DomUtil domUtil;
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        domUtil = new DomUtil();
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = domUtil.htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void getElementsMatchingOwnText()
+    {
+        //Act
+        List<Element> elements = DomIndex.of(document).getElementsMatchingOwnText("Username");
+
+        //Assert
+        Assert.assertEquals(domUtil.getElementsMatchingOwnText(document, "Username"), elements);
+        Assert.assertTrue(elements.size()==1);
+    }
+
+    @Test
+    public void getElementsByTagNameContainingOwnText()
+    {
+        //Act
+        List<Element> elements = DomIndex.of(document).getElementsByTagNameContainingOwnText("div", "Username");
+
+        //Assert
+        Assert.assertEquals(domUtil.getElementsByTagNameContainingOwnText(document, "div", "Username"), elements);
+        Assert.assertTrue(elements.get(0).ownText().contains("Username"));
+    }
+
+    @Test
+    public void getElements_with_AnchorElementInfo()
+    {
+        //Arrange
+        ElementInfo anchorElementInfo = new ElementInfo();
+        anchorElementInfo.ownText = "userna";
+        anchorElementInfo.tagName = "div";
+        anchorElementInfo.condition.whereIgnoreCaseForOwnText = true;
+        anchorElementInfo.condition.whereOwnTextContainingPattern = true;
+
+        //Act
+        List<Element> elements = DomIndex.of(document).getElements(anchorElementInfo);
+        List<Element> shortPatternElements = DomIndex.of(document).getElementsByTagNameContainingOwnText("div", "us", true);
+
+        //Assert
+        Assert.assertTrue(elements.size()==1);
+        Assert.assertEquals("Username", elements.get(0).ownText());
+        Assert.assertTrue(shortPatternElements.contains(elements.get(0)));
+    }
+
+    @Test
+    public void index_is_reused_until_invalidated()
+    {
+        //Arrange
+        DomIndex index = DomIndex.of(document);
+        List<Attribute> attributes = new ArrayList<>();
+        attributes.add(new Attribute("type", "hidden"));
+
+        //Act
+        DomIndex reused = DomIndex.of(document);
+        document = domUtil.removeTagsByAnyMatchedAttribute(document, attributes);
+        DomIndex.invalidate(document);
+        DomIndex rebuilt = DomIndex.of(document);
+
+        //Assert
+        Assert.assertSame(index, reused);
+        Assert.assertNotSame(index, rebuilt);
+        Assert.assertEquals(0, rebuilt.getElementsByTagNameMatchingOwnText("button", "Hidden").size());
+    }
+
+    @Test
+    public void getElementsByTagNameContainingOwnText_equals_scanning_for_short_and_long_patterns()
+    {
+        //Arrange
+        DomIndex index = DomIndex.of(document);
+
+        for (String pattern : new String[] {"u", "Us", "na", "use", "Username", "sername", "NEXT", "no such text"})
+        {
+            for (String tagName : new String[] {null, "div", "span", "button"})
+            {
+                for (boolean ignoreCase : new boolean[] {false, true})
+                {
+                    //Act
+                    List<Element> elements = index.getElementsByTagNameContainingOwnText(tagName, pattern, ignoreCase);
+
+                    //Assert
+                    Assert.assertEquals(pattern + " " + tagName + " " + ignoreCase, scanContaining(tagName, pattern, ignoreCase), elements);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getElementsByTagName_and_bare_tag_name_select_equal_jsoup()
+    {
+        //Arrange
+        DomIndex index = DomIndex.of(document);
+
+        for (String tagName : new String[] {"input", "div", "BUTTON", "no-such-tag"})
+        {
+            //Act
+            List<Element> elements = index.getElementsByTagName(tagName);
+
+            //Assert
+            Assert.assertEquals(tagName, document.getElementsByTag(tagName), elements);
+            Assert.assertEquals(tagName, document.select(tagName), index.select(tagName));
+        }
+    }
+
+    @Test
+    public void query_on_an_index_with_a_removed_element_answers_from_the_rebuilt_index()
+    {
+        //Arrange
+        DomIndex index = DomIndex.of(document);
+        Element username = document.getElementById("username");
+        username.after("<input id=\"nickname\">");
+        username.remove();
+
+        //Act
+        List<Element> inputs = index.getElementsByTagName("input");
+
+        //Assert
+        Assert.assertEquals(document.getElementsByTag("input"), inputs);
+        Assert.assertFalse(inputs.contains(username));
+        Assert.assertTrue(inputs.contains(document.getElementById("nickname")));
+        Assert.assertNotSame(index, DomIndex.of(document));
+    }
+
+    @Test
+    public void added_elements_rebuild_the_cached_index()
+    {
+        //Arrange
+        DomIndex index = DomIndex.of(document);
+        document.getElementById("username").after("<div>Nickname</div>");
+
+        //Act
+        DomIndex rebuilt = DomIndex.of(document);
+
+        //Assert
+        Assert.assertNotSame(index, rebuilt);
+        Assert.assertEquals(1, rebuilt.getElementsByTagNameMatchingOwnText("div", "Nickname").size());
+        Assert.assertEquals(1, rebuilt.getElementsByTagNameContainingOwnText("div", "nick", true).size());
+        Assert.assertSame(rebuilt, DomIndex.of(document));
+    }
+
+    private List<Element> scanContaining(String tagName, String pattern, boolean ignoreCase)
+    {
+        List<Element> found = new ArrayList<>();
+
+        for (Element element : document.getAllElements())
+        {
+            String ownText = element.ownText().trim();
+            boolean containing = ignoreCase
+                    ? ownText.toLowerCase(Locale.ROOT).contains(pattern.toLowerCase(Locale.ROOT))
+                    : ownText.contains(pattern);
+
+            if (!ownText.isEmpty() && containing && (tagName == null || tagName.equals(element.tagName())))
+            {
+                found.add(element);
+            }
+        }
+
+        return found;
+    }
+}
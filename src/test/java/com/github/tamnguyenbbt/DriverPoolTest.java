@@ -0,0 +1,211 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DriverPool;
+import com.github.tamnguyenbbt.dom.JsoupWebDriver;
+import org.jsoup.Jsoup;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DriverPoolTest
+{
+    private String resourcePath;
+    private List<WebDriver> createdDrivers;
+
+    @Before
+    public void init()
+    {
+        resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        createdDrivers = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @Test
+    public void submit_reuses_sessions() throws Exception
+    {
+        //Arrange
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+
+        //Act
+        try (DriverPool pool = new DriverPool(this::createDriver, 2, 2))
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                futures.add(pool.submit(resourcePath, (driver, document) -> document.title()));
+            }
+
+            for (CompletableFuture<String> future : futures)
+            {
+                //Assert
+                Assert.assertEquals("Create your Google Account", future.get());
+            }
+        }
+
+        //Assert
+        Assert.assertTrue(createdDrivers.size() >= 1 && createdDrivers.size() <= 2);
+    }
+
+    @Test
+    public void submit_blocks_when_pool_is_full() throws Exception
+    {
+        //Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        CountDownLatch fourthSubmitted = new CountDownLatch(1);
+
+        try (DriverPool pool = new DriverPool(this::createDriver, 2, 1))
+        {
+            DriverPool.PageTask<Integer> task = (driver, document) ->
+            {
+                started.incrementAndGet();
+                release.await();
+                return document.select("input").size();
+            };
+
+            for (int i = 0; i < 3; i++)
+            {
+                pool.submit(resourcePath, task);
+            }
+
+            //Act
+            Thread producer = new Thread(() ->
+            {
+                try
+                {
+                    pool.submit(resourcePath, task);
+                    fourthSubmitted.countDown();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            producer.start();
+
+            //Assert
+            Assert.assertFalse(fourthSubmitted.await(200, TimeUnit.MILLISECONDS));
+            Assert.assertTrue(started.get() <= 2);
+            release.countDown();
+            Assert.assertTrue(fourthSubmitted.await(10, TimeUnit.SECONDS));
+            producer.join();
+        }
+
+        Assert.assertEquals(4, started.get());
+        Assert.assertTrue(createdDrivers.size() <= 2);
+    }
+
+    @Test
+    public void failing_navigation_replaces_the_session() throws Exception
+    {
+        //Arrange
+        AtomicInteger quitCount = new AtomicInteger();
+
+        try (DriverPool pool = new DriverPool(() ->
+        {
+            JsoupWebDriver driver = new JsoupWebDriver(url ->
+            {
+                if (url.equals("broken"))
+                {
+                    throw new IllegalStateException("Unparseable page");
+                }
+
+                return Jsoup.parse(new File(url), null);
+            })
+            {
+                @Override
+                public void quit()
+                {
+                    quitCount.incrementAndGet();
+                    super.quit();
+                }
+            };
+            createdDrivers.add(driver);
+            return driver;
+        }, 1, 0))
+        {
+            //Act
+            CompletableFuture<String> broken = pool.submit("broken", (driver, document) -> document.title());
+
+            try
+            {
+                broken.get();
+                Assert.fail();
+            }
+            catch (ExecutionException e)
+            {
+                //Assert
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+
+            String title = pool.submit(resourcePath, (driver, document) -> document.title()).get();
+
+            //Assert
+            Assert.assertEquals("Create your Google Account", title);
+            Assert.assertEquals(1, quitCount.get());
+            Assert.assertEquals(2, createdDrivers.size());
+        }
+    }
+
+    @Test
+    public void failing_task_replaces_the_session_unless_an_element_is_not_found() throws Exception
+    {
+        //Arrange
+        List<WebDriver> usedDrivers = new ArrayList<>();
+
+        try (DriverPool pool = new DriverPool(this::createDriver, 1, 0))
+        {
+            //Act
+            CompletableFuture<Object> notFound = pool.submit(resourcePath, (driver, document) ->
+            {
+                usedDrivers.add(driver);
+                throw new NoSuchElementException("no such element");
+            });
+            CompletableFuture<Object> deadSession = pool.submit(resourcePath, (driver, document) ->
+            {
+                usedDrivers.add(driver);
+                throw new WebDriverException("session deleted");
+            });
+            CompletableFuture<Object> next = pool.submit(resourcePath, (driver, document) -> usedDrivers.add(driver));
+
+            //Assert
+            Assert.assertTrue(waitFailed(notFound));
+            Assert.assertTrue(waitFailed(deadSession));
+            next.get();
+        }
+
+        Assert.assertSame(usedDrivers.get(0), usedDrivers.get(1));
+        Assert.assertNotSame(usedDrivers.get(1), usedDrivers.get(2));
+        Assert.assertEquals(2, createdDrivers.size());
+    }
+
+    private static boolean waitFailed(CompletableFuture<?> future) throws InterruptedException
+    {
+        try
+        {
+            future.get();
+            return false;
+        }
+        catch (ExecutionException e)
+        {
+            return true;
+        }
+    }
+
+    private WebDriver createDriver()
+    {
+        JsoupWebDriver driver = new JsoupWebDriver();
+        createdDrivers.add(driver);
+        return driver;
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DomIndex;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.FlatDom;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.List;
+
+public class FlatDomTest
+{
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void of_mirrors_the_element_tree()
+    {
+        //Act
+        FlatDom flatDom = FlatDom.of(document);
+
+        //Assert
+        List<Element> elements = document.getAllElements();
+        Assert.assertEquals(elements.size(), flatDom.size());
+
+        for (int id = 0; id < flatDom.size(); id++)
+        {
+            Element element = flatDom.getElement(id);
+            Assert.assertSame(elements.get(id), element);
+            Assert.assertEquals(id, flatDom.getId(element));
+            Assert.assertEquals(element.tagName(), flatDom.getTagName(id));
+            Assert.assertEquals(element.ownText().trim(), flatDom.getOwnText(id));
+            Assert.assertEquals(element.parent() == null ? FlatDom.NONE : flatDom.getId(element.parent()), flatDom.getParent(id));
+            Assert.assertEquals(element.children().isEmpty() ? FlatDom.NONE : flatDom.getId(element.child(0)), flatDom.getFirstChild(id));
+            Element nextSibling = element.nextElementSibling();
+            Assert.assertEquals(nextSibling == null ? FlatDom.NONE : flatDom.getId(nextSibling), flatDom.getNextSibling(id));
+            Assert.assertEquals(id == 0 ? 0 : flatDom.getDepth(flatDom.getParent(id)) + 1, flatDom.getDepth(id));
+        }
+    }
+
+    @Test
+    public void getClosestIds_equals_the_indexed_tree_distance()
+    {
+        //Arrange
+        FlatDom flatDom = FlatDom.of(document);
+        int[] anchorIds = flatDom.getIdsByOwnText("div", "userna", true, true);
+
+        //Act
+        List<Element> closest = flatDom.toElements(flatDom.getClosestIds(anchorIds, "input"));
+
+        //Assert
+        Assert.assertEquals(1, anchorIds.length);
+        Assert.assertEquals(1, closest.size());
+        Assert.assertSame(document.getElementById("username"), closest.get(0));
+        Element anchor = flatDom.getElement(anchorIds[0]);
+        Assert.assertEquals(DomIndex.of(document).getLowestCommonAncestor().distance(anchor, closest.get(0)),
+                flatDom.distance(anchorIds[0], flatDom.getId(closest.get(0))));
+    }
+
+    @Test
+    public void getFlatDom_is_taken_again_with_the_rebuilt_index()
+    {
+        //Arrange
+        FlatDom flatDom = DomIndex.of(document).getFlatDom();
+        Element nickname = document.getElementById("username").after("<input id=\"nickname\">").nextElementSibling();
+
+        //Act
+        FlatDom rebuilt = DomIndex.of(document).getFlatDom();
+
+        //Assert
+        Assert.assertEquals(FlatDom.NONE, flatDom.getId(nickname));
+        Assert.assertNotSame(flatDom, rebuilt);
+        Assert.assertSame(nickname, rebuilt.getElement(rebuilt.getId(nickname)));
+    }
+}
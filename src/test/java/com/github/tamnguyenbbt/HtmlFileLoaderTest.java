@@ -0,0 +1,147 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.HtmlFileLoader;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class HtmlFileLoaderTest
+{
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void load_equals_jsoup_parse_of_the_page() throws IOException
+    {
+        //Arrange
+        File file = new File(getClass().getClassLoader().getResource("google-signup.html").getFile());
+
+        //Act
+        Document document = new HtmlFileLoader().load(file.getPath());
+
+        //Assert
+        Assert.assertEquals(Jsoup.parse(file, "UTF-8").outerHtml(), document.outerHtml());
+        Assert.assertEquals(StandardCharsets.UTF_8, document.outputSettings().charset());
+    }
+
+    @Test
+    public void parse_detects_the_byte_order_mark_and_skips_it()
+    {
+        //Arrange
+        HtmlFileLoader htmlFileLoader = new HtmlFileLoader(WINDOWS_1252);
+        String html = "<p>Café</p>";
+
+        for (Charset charset : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.UTF_16BE, StandardCharsets.UTF_16LE})
+        {
+            ByteBuffer bytes = ByteBuffer.wrap(concat(byteOrderMark(charset), html.getBytes(charset)));
+
+            //Act
+            Charset detected = htmlFileLoader.detectCharset(bytes);
+            Document document = htmlFileLoader.parse(bytes, "");
+
+            //Assert
+            Assert.assertEquals(charset, detected);
+            Assert.assertEquals(charset, document.outputSettings().charset());
+            Assert.assertEquals("Café", document.select("p").text());
+            Assert.assertEquals("Café", document.body().text());
+        }
+    }
+
+    @Test
+    public void parse_takes_the_charset_of_a_meta_declaration()
+    {
+        //Arrange
+        HtmlFileLoader htmlFileLoader = new HtmlFileLoader();
+        String[] declarations = {
+                "<meta charset=\"windows-1252\">",
+                "<meta charset=windows-1252>",
+                "<meta http-equiv=\"Content-Type\" content=\"text/html; charset=windows-1252\">"};
+
+        for (String declaration : declarations)
+        {
+            byte[] html = ("<html><head>" + declaration + "</head><body><p>Café</p></body></html>").getBytes(WINDOWS_1252);
+            ByteBuffer bytes = ByteBuffer.wrap(html);
+
+            //Act
+            Charset detected = htmlFileLoader.detectCharset(bytes);
+            int position = bytes.position();
+            Document document = htmlFileLoader.parse(bytes, "");
+
+            //Assert
+            Assert.assertEquals(declaration, WINDOWS_1252, detected);
+            Assert.assertEquals(declaration, 0, position);
+            Assert.assertEquals(declaration, "Café", document.select("p").text());
+        }
+    }
+
+    @Test
+    public void parse_reads_a_utf_16_meta_declaration_as_utf_8()
+    {
+        //Arrange
+        HtmlFileLoader htmlFileLoader = new HtmlFileLoader(WINDOWS_1252);
+        byte[] html = "<html><head><meta charset=\"utf-16\"></head><body><p>Café</p></body></html>".getBytes(StandardCharsets.UTF_8);
+
+        //Act
+        Charset detected = htmlFileLoader.detectCharset(ByteBuffer.wrap(html));
+        Document document = htmlFileLoader.parse(ByteBuffer.wrap(html), "");
+
+        //Assert
+        Assert.assertEquals(StandardCharsets.UTF_8, detected);
+        Assert.assertEquals("Café", document.select("p").text());
+    }
+
+    @Test
+    public void parse_falls_back_to_the_default_charset_for_an_unknown_declaration()
+    {
+        //Arrange
+        byte[] html = "<html><head><meta charset=\"no-such-charset\"></head><body><p>Café</p></body></html>".getBytes(WINDOWS_1252);
+
+        //Act
+        Charset detected = new HtmlFileLoader(WINDOWS_1252).detectCharset(ByteBuffer.wrap(html));
+
+        //Assert
+        Assert.assertEquals(WINDOWS_1252, detected);
+    }
+
+    @Test
+    public void load_a_non_utf_8_page_without_declaration_in_the_default_charset() throws IOException
+    {
+        //Arrange
+        Path file = temporaryFolder.newFile("latin.html").toPath();
+        Files.write(file, "<html><body><p>Café crème</p></body></html>".getBytes(WINDOWS_1252));
+
+        //Act
+        Document document = new HtmlFileLoader(WINDOWS_1252).load(file);
+        Document utf8Document = new HtmlFileLoader().load(file);
+
+        //Assert
+        Assert.assertEquals("Café crème", document.select("p").text());
+        Assert.assertEquals(WINDOWS_1252, document.outputSettings().charset());
+        Assert.assertEquals("Caf\ufffd cr\ufffdme", utf8Document.select("p").text());
+    }
+
+    private static byte[] byteOrderMark(Charset charset)
+    {
+        return "\ufeff".getBytes(charset);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second)
+    {
+        byte[] bytes = new byte[first.length + second.length];
+        System.arraycopy(first, 0, bytes, 0, first.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
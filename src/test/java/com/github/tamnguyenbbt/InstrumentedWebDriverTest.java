@@ -0,0 +1,100 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DriverCallType;
+import com.github.tamnguyenbbt.dom.DriverStats;
+import com.github.tamnguyenbbt.dom.InstrumentedWebDriver;
+import com.github.tamnguyenbbt.dom.JsoupWebDriver;
+import org.jsoup.Jsoup;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+
+public class InstrumentedWebDriverTest
+{
+    private InstrumentedWebDriver driver;
+
+    @Before
+    public void init()
+    {
+        driver = new InstrumentedWebDriver(new JsoupWebDriver(Jsoup.parse("<html><body><div><span>Name</span><input id=\"name\"></div></body></html>")));
+    }
+
+    @Test
+    public void calls_are_counted_per_call_type()
+    {
+        //Arrange
+        By input = By.tagName("input");
+
+        //Act
+        driver.findElement(input);
+        driver.findElement(input);
+        driver.findElements(input);
+        driver.getPageSource();
+
+        //Assert
+        DriverStats stats = driver.getStats();
+        Assert.assertEquals(2, stats.getCallStats(DriverCallType.FIND_ELEMENT).getCount());
+        Assert.assertEquals(1, stats.getCallStats(DriverCallType.FIND_ELEMENTS).getCount());
+        Assert.assertEquals(1, stats.getCallStats(DriverCallType.PAGE_SOURCE).getCount());
+        Assert.assertEquals(4, stats.getCallCount());
+    }
+
+    @Test
+    public void calls_are_attributed_to_the_open_scopes_only()
+    {
+        //Arrange
+        By input = By.tagName("input");
+
+        //Act
+        driver.getPageSource();
+
+        try (InstrumentedWebDriver.Scope outer = driver.scope("getWebElement"))
+        {
+            driver.getPageSource();
+
+            try (InstrumentedWebDriver.Scope inner = driver.scope("findElement"))
+            {
+                driver.findElement(input);
+            }
+        }
+
+        driver.findElement(input);
+
+        //Assert
+        DriverStats stats = driver.getStats();
+        Assert.assertEquals(2, stats.getCallCount("getWebElement"));
+        Assert.assertEquals(1, stats.getCallStats("getWebElement", DriverCallType.PAGE_SOURCE).getCount());
+        Assert.assertEquals(1, stats.getCallCount("findElement"));
+        Assert.assertEquals(1, stats.getApiStats("getWebElement").getCount());
+        Assert.assertEquals(4, stats.getCallCount());
+    }
+
+    @Test
+    public void nested_scopes_of_the_same_name_count_each_call_once_and_may_close_out_of_order()
+    {
+        //Arrange
+        By input = By.tagName("input");
+        InstrumentedWebDriver.Scope outer = driver.scope("getWebElement");
+        InstrumentedWebDriver.Scope inner = driver.scope("getWebElement");
+        InstrumentedWebDriver.Scope other = driver.scope("getXpaths");
+
+        //Act
+        driver.findElement(input);
+        outer.close();
+        outer.close();
+        driver.findElement(input);
+        other.close();
+        driver.findElement(input);
+        inner.close();
+        driver.findElement(input);
+
+        //Assert
+        DriverStats stats = driver.getStats();
+        Assert.assertEquals(3, stats.getCallCount("getWebElement"));
+        Assert.assertEquals(2, stats.getCallCount("getXpaths"));
+        Assert.assertEquals(2, stats.getApiStats("getWebElement").getCount());
+        Assert.assertEquals(1, stats.getApiStats("getXpaths").getCount());
+        Assert.assertEquals(4, stats.getCallCount());
+    }
+}
@@ -0,0 +1,157 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.ActiveDocumentTracker;
+import com.github.tamnguyenbbt.dom.AnchorQuery;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.JsoupWebDriver;
+import com.github.tamnguyenbbt.dom.WebElementBatchResolver;
+import com.github.tamnguyenbbt.dom.WebElementLocator;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class JsoupWebDriverTest
+{
+    private Document document;
+    private JsoupWebDriver driver;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+        driver = new JsoupWebDriver(document);
+    }
+
+    @Test
+    public void getWebElements_in_one_round_trip()
+    {
+        //Arrange
+        List<AnchorQuery> queries = Arrays.asList(new AnchorQuery("Username", "input"), new AnchorQuery("Last name", "input"));
+
+        //Act
+        List<WebElement> webElements = new WebElementBatchResolver().getWebElements(driver, document, queries);
+
+        //Assert
+        Assert.assertEquals("username", webElements.get(0).getAttribute("id"));
+        Assert.assertEquals("lastName", webElements.get(1).getAttribute("name"));
+    }
+
+    @Test
+    public void getWebElement_in_browser()
+    {
+        //Arrange
+        WebElementLocator locator = new WebElementLocator(WebElementLocator.Strategy.IN_BROWSER);
+
+        //Act
+        WebElement webElement = locator.getWebElement(driver, new AnchorQuery("Username", "input"));
+
+        //Assert
+        Assert.assertEquals(driver.findElement(By.xpath("//input[@id=\"username\"]")), webElement);
+    }
+
+    @Test
+    public void getWebElement_locally_ambiguous_when_one_found_element_cannot_be_fetched()
+    {
+        //Arrange
+        driver.modify(document.body(), body -> body.append("<div><span>Unique anchor</span><i id=\"found\"></i><i></i></div>"));
+        WebElementLocator locator = new WebElementLocator(WebElementLocator.Strategy.LOCAL);
+        AnchorQuery query = new AnchorQuery("Unique anchor", "i");
+
+        //Act
+        WebElement webElement = locator.getWebElement(driver, query);
+        List<WebElement> webElements = locator.getWebElements(driver, query);
+
+        //Assert
+        Assert.assertNull(webElement);
+        Assert.assertEquals(1, webElements.size());
+        Assert.assertEquals("found", webElements.get(0).getAttribute("id"));
+    }
+
+    @Test
+    public void getActiveDocument_patched_after_modify()
+    {
+        //Arrange
+        ActiveDocumentTracker tracker = new ActiveDocumentTracker(driver);
+        Document activeDocument = tracker.getActiveDocument();
+
+        //Act
+        driver.modify(document.getElementById("username"), element -> element.attr("aria-invalid", "true"));
+        Document patchedDocument = tracker.getActiveDocument();
+
+        //Assert
+        Assert.assertSame(activeDocument, patchedDocument);
+        Assert.assertEquals("true", patchedDocument.getElementById("username").attr("aria-invalid"));
+        Assert.assertEquals(1, tracker.getFullLoadCount());
+        Assert.assertEquals(1, tracker.getPatchCount());
+    }
+
+    @Test
+    public void getActiveDocument_patched_after_head_and_body_change()
+    {
+        //Arrange
+        ActiveDocumentTracker tracker = new ActiveDocumentTracker(driver);
+        Document activeDocument = tracker.getActiveDocument();
+
+        //Act
+        driver.modify(document.body(), body -> body.attr("class", "signed-out"));
+        driver.modify(document.head(), head -> head.appendElement("meta").attr("name", "patched"));
+        Document patchedDocument = tracker.getActiveDocument();
+
+        //Assert
+        Assert.assertSame(activeDocument, patchedDocument);
+        Assert.assertEquals(1, patchedDocument.select("head").size());
+        Assert.assertEquals(1, patchedDocument.select("body").size());
+        Assert.assertEquals("signed-out", patchedDocument.body().attr("class"));
+        Assert.assertEquals(1, patchedDocument.head().select("meta[name=patched]").size());
+        Assert.assertEquals("username", patchedDocument.body().getElementById("username").id());
+        Assert.assertEquals(Jsoup.parse(driver.getPageSource()).outerHtml(), patchedDocument.outerHtml());
+        Assert.assertEquals(1, tracker.getFullLoadCount());
+        Assert.assertEquals(1, tracker.getPatchCount());
+    }
+
+    @Test
+    public void sendKeys_sets_value_without_mutation()
+    {
+        //Arrange
+        ActiveDocumentTracker tracker = new ActiveDocumentTracker(driver);
+        tracker.getActiveDocument();
+        WebElement username = driver.findElement(By.cssSelector("#username"));
+
+        //Act
+        username.sendKeys("tam");
+        Document activeDocument = tracker.getActiveDocument();
+
+        //Assert
+        Assert.assertEquals("tam", username.getAttribute("value"));
+        Assert.assertFalse(document.getElementById("username").hasAttr("value"));
+        Assert.assertFalse(activeDocument.getElementById("username").hasAttr("value"));
+        Assert.assertEquals(0, tracker.getPatchCount());
+    }
+
+    @Test
+    public void manage_timeouts_are_ignored()
+    {
+        //Act
+        driver.manage().timeouts().implicitlyWait(5, TimeUnit.SECONDS).pageLoadTimeout(30, TimeUnit.SECONDS);
+
+        //Assert
+        Assert.assertTrue(driver.manage().getCookies().isEmpty());
+    }
+
+    @Test(expected = WebDriverException.class)
+    public void navigate_back_not_supported()
+    {
+        //Act
+        driver.navigate().back();
+    }
+}
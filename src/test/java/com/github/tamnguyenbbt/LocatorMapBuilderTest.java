@@ -0,0 +1,76 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DomIndex;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.LocatorMapBuilder;
+import com.github.tamnguyenbbt.dom.LocatorMapEntry;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.Map;
+
+public class LocatorMapBuilderTest
+{
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void buildLocatorMap()
+    {
+        //Arrange
+        String expectedXPath = "//div[div[contains(text(),\"Username\")]]/input[@id=\"username\"][@jsname=\"YPqjbf\"][@name=\"Username\"]";
+
+        //Act
+        Map<String, LocatorMapEntry> locatorMap = new LocatorMapBuilder().buildLocatorMap(document);
+
+        //Assert
+        Assert.assertEquals(expectedXPath, locatorMap.get("Username").getXpath());
+        Assert.assertSame(document.getElementById("username"), locatorMap.get("Username").getElement());
+        Assert.assertSame(document.getElementById("lastName"), locatorMap.get("Last name").getElement());
+        Assert.assertEquals("Passwd", locatorMap.get("Password").getElement().attr("name"));
+    }
+
+    @Test
+    public void buildLocatorMap_interactive_element_with_own_text_maps_to_itself()
+    {
+        //Act
+        LocatorMapEntry entry = new LocatorMapBuilder().buildLocatorMap(document).get("Next");
+
+        //Assert
+        Assert.assertSame(entry.getAnchorElement(), entry.getElement());
+        Assert.assertEquals("//button[contains(text(),\"Next\")]", entry.getXpath());
+    }
+
+    @Test
+    public void buildLocatorMap_after_the_indexed_document_is_mutated()
+    {
+        //Arrange
+        DomIndex.of(document).getLowestCommonAncestor();
+        document.getElementById("username").remove();
+        document.getElementById("lastName").after("<input id=\"nickname\" name=\"Nickname\">");
+        Document reparsed = Jsoup.parse(document.outerHtml());
+
+        //Act
+        Map<String, LocatorMapEntry> locatorMap = new LocatorMapBuilder().buildLocatorMap(document);
+
+        //Assert
+        Map<String, LocatorMapEntry> expected = new LocatorMapBuilder().buildLocatorMap(reparsed);
+        Assert.assertEquals(expected.keySet(), locatorMap.keySet());
+
+        for (Map.Entry<String, LocatorMapEntry> entry : expected.entrySet())
+        {
+            Assert.assertEquals(entry.getValue().getXpath(), locatorMap.get(entry.getKey()).getXpath());
+        }
+
+        Assert.assertNotEquals("username", locatorMap.get("Username").getElement().id());
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DomIndex;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.LowestCommonAncestor;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class LowestCommonAncestorTest
+{
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void get_equals_parent_walk()
+    {
+        //Arrange
+        List<Element> elements = DomIndex.of(document).getElements();
+        LowestCommonAncestor lowestCommonAncestor = DomIndex.of(document).getLowestCommonAncestor();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++)
+        {
+            Element first = elements.get(random.nextInt(elements.size()));
+            Element second = elements.get(random.nextInt(elements.size()));
+
+            //Act
+            Element ancestor = lowestCommonAncestor.get(first, second);
+            int distance = lowestCommonAncestor.distance(first, second);
+
+            //Assert
+            Element expectedAncestor = walkLowestCommonAncestor(first, second);
+            Assert.assertSame(expectedAncestor, ancestor);
+            Assert.assertEquals(depth(first) + depth(second) - 2 * depth(expectedAncestor), distance);
+            Assert.assertEquals(depth(first), lowestCommonAncestor.depth(first));
+        }
+    }
+
+    @Test
+    public void get_after_mutation_without_invalidate()
+    {
+        //Arrange
+        DomIndex index = DomIndex.of(document);
+        Element username = document.getElementById("username");
+        Element lastName = document.getElementById("lastName");
+        Element added = username.parent().appendElement("span");
+        Element removed = document.getElementById("firstName");
+        removed.remove();
+
+        //Act
+        LowestCommonAncestor lowestCommonAncestor = index.getLowestCommonAncestor();
+
+        //Assert
+        Assert.assertNull(lowestCommonAncestor.get(added, username));
+        Assert.assertEquals(-1, lowestCommonAncestor.distance(removed, username));
+        Assert.assertEquals(-1, lowestCommonAncestor.depth(added));
+        Assert.assertSame(walkLowestCommonAncestor(username, lastName), lowestCommonAncestor.get(username, lastName));
+    }
+
+    private static Element walkLowestCommonAncestor(Element first, Element second)
+    {
+        Set<Element> ancestors = new HashSet<>();
+
+        for (Element element = first; element != null; element = element.parent())
+        {
+            ancestors.add(element);
+        }
+
+        Element element = second;
+
+        while (!ancestors.contains(element))
+        {
+            element = element.parent();
+        }
+
+        return element;
+    }
+
+    private static int depth(Element element)
+    {
+        int depth = 0;
+
+        for (Element parent = element.parent(); parent != null; parent = parent.parent())
+        {
+            depth++;
+        }
+
+        return depth;
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DomIndex;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.LocatorMapBuilder;
+import com.github.tamnguyenbbt.dom.LocatorMapEntry;
+import com.github.tamnguyenbbt.dom.ParallelXpathIndexer;
+import com.github.tamnguyenbbt.dom.XpathBuilder;
+import com.github.tamnguyenbbt.dom.XpathEvaluator;
+import com.github.tamnguyenbbt.dom.XpathIndex;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelXpathIndexerTest
+{
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void buildLocatorMap_parallel_equals_sequential()
+    {
+        //Arrange
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Map<String, LocatorMapEntry> sequential = new LocatorMapBuilder().buildLocatorMap(document);
+
+        try
+        {
+            //Act
+            Map<String, LocatorMapEntry> parallel = new ParallelXpathIndexer(pool, 1).buildLocatorMap(document, new LocatorMapBuilder());
+
+            //Assert
+            Assert.assertEquals(new ArrayList<>(sequential.keySet()), new ArrayList<>(parallel.keySet()));
+
+            for (Map.Entry<String, LocatorMapEntry> entry : sequential.entrySet())
+            {
+                LocatorMapEntry parallelEntry = parallel.get(entry.getKey());
+                Assert.assertSame(entry.getValue().getAnchorElement(), parallelEntry.getAnchorElement());
+                Assert.assertEquals(entry.getValue().getElements(), parallelEntry.getElements());
+                Assert.assertEquals(entry.getValue().getXpath(), parallelEntry.getXpath());
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void index_holds_the_xpaths_of_the_sequential_locator_map()
+    {
+        //Arrange
+        Map<Element, String> expected = new LinkedHashMap<>();
+
+        for (LocatorMapEntry entry : new LocatorMapBuilder().buildLocatorMap(document).values())
+        {
+            expected.putIfAbsent(entry.getElement(), entry.getXpath());
+        }
+
+        try (ParallelXpathIndexer indexer = new ParallelXpathIndexer(4))
+        {
+            //Act
+            XpathIndex index = indexer.index(document);
+
+            //Assert
+            Assert.assertEquals(new ArrayList<>(expected.keySet()), index.getElements());
+            Assert.assertEquals(new ArrayList<>(expected.values()), index.getXpaths());
+        }
+    }
+
+    @Test
+    public void index_function_parallel_equals_sequential()
+    {
+        //Arrange
+        XpathBuilder xpathBuilder = new XpathBuilder();
+        List<Element> elements = new ArrayList<>();
+        List<String> xpaths = new ArrayList<>();
+
+        for (Element element : document.getAllElements())
+        {
+            if (element != document)
+            {
+                elements.add(element);
+                xpaths.add(xpathBuilder.buildAbsolute(element));
+            }
+        }
+
+        try (ParallelXpathIndexer indexer = new ParallelXpathIndexer(4))
+        {
+            //Act
+            XpathIndex index = indexer.index(document, element -> element == document ? null : xpathBuilder.buildAbsolute(element));
+
+            //Assert
+            Assert.assertEquals(elements, index.getElements());
+            Assert.assertEquals(xpaths, index.getXpaths());
+        }
+    }
+
+    @Test
+    public void index_relative_xpaths()
+    {
+        //Arrange
+        String expectedXPath = "//div[div[contains(text(),\"Username\")]]/input[@id=\"username\"][@jsname=\"YPqjbf\"][@name=\"Username\"]";
+        Element next = DomIndex.of(document).getElementsByTagNameMatchingOwnText("button", "Next").get(0);
+
+        try (ParallelXpathIndexer indexer = new ParallelXpathIndexer(2))
+        {
+            //Act
+            XpathIndex index = indexer.index(document);
+
+            //Assert
+            Assert.assertEquals(expectedXPath, index.getXpath(document.getElementById("username")));
+            Assert.assertEquals("//button[contains(text(),\"Next\")]", index.getXpath(next));
+            Assert.assertTrue(XpathEvaluator.select(document, index.getXpath(document.getElementById("username")))
+                    .contains(document.getElementById("username")));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DomIndex;
+import com.github.tamnguyenbbt.dom.HtmlFileLoader;
+import com.github.tamnguyenbbt.dom.ParseCache;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ParseCacheTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path page;
+    private Path cacheDirectory;
+
+    @Before
+    public void init() throws IOException
+    {
+        page = new File(getClass().getClassLoader().getResource("google-signup.html").getFile()).toPath();
+        cacheDirectory = temporaryFolder.newFolder("cache").toPath();
+    }
+
+    @Test
+    public void load_twice_reads_the_same_document_back() throws IOException
+    {
+        //Arrange
+        ParseCache parseCache = new ParseCache(cacheDirectory);
+        String expected = new HtmlFileLoader().load(page).outerHtml();
+
+        //Act
+        Document parsed = parseCache.load(page);
+        Document cached = parseCache.load(page);
+
+        //Assert
+        Assert.assertEquals(1, parseCache.getMissCount());
+        Assert.assertEquals(1, parseCache.getHitCount());
+        Assert.assertEquals(expected, parsed.outerHtml());
+        Assert.assertEquals(expected, cached.outerHtml());
+        Assert.assertEquals(page.toAbsolutePath().toString(), cached.location());
+    }
+
+    @Test
+    public void load_copy_hits_with_its_own_location() throws IOException
+    {
+        //Arrange
+        ParseCache parseCache = new ParseCache(cacheDirectory);
+        Path copy = temporaryFolder.newFolder("copy").toPath().resolve("page.html");
+        Files.copy(page, copy);
+        parseCache.load(page);
+
+        //Act
+        Document cached = parseCache.load(copy);
+
+        //Assert
+        Assert.assertEquals(1, parseCache.getHitCount());
+        Assert.assertEquals(copy.toAbsolutePath().toString(), cached.location());
+    }
+
+    @Test
+    public void load_keeps_self_closing_unknown_tags() throws IOException
+    {
+        //Arrange
+        Path file = write("custom.html", "<html><body><div><custom-icon name=\"star\" /><span>Favourite</span></div></body></html>");
+        ParseCache parseCache = new ParseCache(cacheDirectory);
+        String expected = parseCache.load(file).outerHtml();
+
+        //Act
+        Document cached = parseCache.load(file);
+
+        //Assert
+        Assert.assertEquals(1, parseCache.getHitCount());
+        Assert.assertEquals(expected, cached.outerHtml());
+    }
+
+    @Test
+    public void load_evicts_least_recently_used_entries() throws Exception
+    {
+        //Arrange
+        Path[] files = new Path[4];
+
+        for (int i = 0; i < files.length; i++)
+        {
+            files[i] = write("page" + i + ".html", new String(Files.readAllBytes(page), StandardCharsets.UTF_8) + "<!-- " + i + " -->");
+        }
+
+        ParseCache sizing = new ParseCache(temporaryFolder.newFolder("sizing").toPath());
+        sizing.load(files[0]);
+        long entryBytes = Files.size(Files.list(temporaryFolder.getRoot().toPath().resolve("sizing")).findFirst().get());
+        ParseCache parseCache = new ParseCache(cacheDirectory, entryBytes * 3 - 1, new HtmlFileLoader());
+
+        //Act
+        parseCache.load(files[0]);
+        Thread.sleep(20);
+        parseCache.load(files[1]);
+        Thread.sleep(20);
+        parseCache.load(files[0]);
+        Thread.sleep(20);
+        parseCache.load(files[2]);
+        Thread.sleep(20);
+
+        //Assert
+        Assert.assertEquals(2, Files.list(cacheDirectory).count());
+        parseCache.load(files[0]);
+        Assert.assertEquals(2, parseCache.getHitCount());
+        parseCache.load(files[1]);
+        Assert.assertEquals(4, parseCache.getMissCount());
+    }
+
+    @Test
+    public void load_reads_back_the_index_of_the_document() throws IOException
+    {
+        //Arrange
+        ParseCache parseCache = new ParseCache(cacheDirectory);
+        parseCache.load(page);
+
+        //Act
+        Document cached = parseCache.load(page);
+        DomIndex index = DomIndex.of(cached);
+
+        //Assert
+        DomIndex expected = new DomIndex(cached);
+        Assert.assertEquals(1, parseCache.getHitCount());
+        Assert.assertEquals(expected.getElements(), index.getElements());
+
+        for (Element element : cached.getAllElements())
+        {
+            Assert.assertEquals(expected.getNormalizedOwnText(element).getTrimmed(), index.getNormalizedOwnText(element).getTrimmed());
+        }
+
+        Assert.assertEquals(expected.getElementsContainingOwnText("name"), index.getElementsContainingOwnText("name"));
+    }
+
+    @Test
+    public void load_parses_again_when_an_entry_claims_more_bytes_than_it_has() throws IOException
+    {
+        //Arrange
+        ParseCache parseCache = new ParseCache(cacheDirectory);
+        String expected = parseCache.load(page).outerHtml();
+        Path entry = Files.list(cacheDirectory).findFirst().get();
+        ByteBuffer corrupt = ByteBuffer.wrap(Files.readAllBytes(entry));
+        corrupt.putInt(8, Integer.MAX_VALUE);
+        Files.write(entry, corrupt.array());
+
+        //Act
+        Document document = parseCache.load(page);
+
+        //Assert
+        Assert.assertEquals(2, parseCache.getMissCount());
+        Assert.assertEquals(expected, document.outerHtml());
+    }
+
+    private Path write(String fileName, String html) throws IOException
+    {
+        Path file = temporaryFolder.getRoot().toPath().resolve(fileName);
+        Files.write(file, html.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,317 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.AnchorBatchResolver;
+import com.github.tamnguyenbbt.dom.AnchorQuery;
+import com.github.tamnguyenbbt.dom.AnchorResolution;
+import com.github.tamnguyenbbt.dom.AnchorSearchMode;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.JsoupWebDriver;
+import com.github.tamnguyenbbt.dom.JsoupWebElement;
+import com.github.tamnguyenbbt.dom.WebElementLocator;
+import com.github.tamnguyenbbt.dom.XpathBuilder;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the anchor search script of the IN_BROWSER strategy in the JavaScript engine of the JDK, against a DOM built
+ * from the parsed page, and compares its results with the elements the LOCAL strategy finds before fetching them by
+ * xpath. Skipped on JDKs without Nashorn.
+ */
+public class WebElementLocatorTest
+{
+    private static final String DOM_SHIM =
+            "var elements = [], document = { nodeType: 9, parentNode: null };" +
+            "var build = function(node, parent) {" +
+            "  var built = { nodeType: node.type, parentNode: parent, firstChild: null, nextSibling: null };" +
+            "  if (node.type === 1) {" +
+            "    built.tagName = node.tag.toUpperCase();" +
+            "    elements.push(built);" +
+            "    var previous = null;" +
+            "    for (var i = 0; i < node.children.length; i++) {" +
+            "      var child = build(node.children[i], built);" +
+            "      if (previous) { previous.nextSibling = child; } else { built.firstChild = child; }" +
+            "      previous = child;" +
+            "    }" +
+            "  } else {" +
+            "    built.nodeValue = node.value;" +
+            "  }" +
+            "  return built;" +
+            "};" +
+            "var roots = JSON.parse(tree);" +
+            "for (var i = 0; i < roots.length; i++) { build(roots[i], document); }" +
+            "document.getElementsByTagName = function() { return elements; };" +
+            "document.querySelectorAll = function() { return JSON.parse(targets).map(function(i) { return elements[i]; }); };";
+
+    private ScriptEngine engine;
+
+    @Before
+    public void init()
+    {
+        engine = new ScriptEngineManager().getEngineByName("nashorn");
+        Assume.assumeNotNull(engine);
+    }
+
+    @Test
+    public void anchor_search_script_finds_what_the_local_strategy_finds() throws IOException
+    {
+        //Arrange
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        String html = new String(Files.readAllBytes(Paths.get(resourcePath)), StandardCharsets.UTF_8);
+        Document document = new DomUtil().htmlFileToDocument(resourcePath);
+        List<AnchorQuery> queries = new ArrayList<>();
+
+        for (String ownText : getOwnTexts(document))
+        {
+            queries.add(new AnchorQuery(ownText, "input"));
+            queries.add(new AnchorQuery(null, ownText, "input, button", AnchorSearchMode.BEST_EFFORT));
+            AnchorQuery ignoreCaseQuery = new AnchorQuery(null, ownText.toLowerCase(Locale.ROOT), "input", AnchorSearchMode.EXACT_MATCH);
+            ignoreCaseQuery.ignoreCase = true;
+            queries.add(ignoreCaseQuery);
+            AnchorQuery containingQuery = new AnchorQuery("div", ownText.substring(0, Math.min(3, ownText.length())), "input");
+            containingQuery.containingOnly = true;
+            containingQuery.indexIfMultipleFound = 0;
+            queries.add(containingQuery);
+            AnchorQuery outwardQuery = new AnchorQuery(ownText, "input");
+            outwardQuery.outwardSearch = true;
+            outwardQuery.maxRadius = 4;
+            queries.add(outwardQuery);
+        }
+
+        //Act and Assert
+        assertSameAsLocal(html, queries);
+    }
+
+    @Test
+    public void anchor_search_script_reads_own_texts_as_jsoup_does()
+    {
+        //Arrange
+        String html = "<html><head><title>  Sign   up&nbsp;now </title></head><body>" +
+                "<div><span>User<br>name</span><input id=\"a\"></div>" +
+                "<div><span>&nbsp;Email&nbsp;address&nbsp;</span><input id=\"b\"></div>" +
+                "<div><span>Pass&#8203;word</span><input id=\"c\"></div>" +
+                "<div><span>Soft&shy;ware</span><input id=\"d\"></div>" +
+                "<div><span>Zero&#8204;width&#8205;joiner</span><input id=\"e\"></div>" +
+                "<div><pre>  Phone\n  number</pre><input id=\"f\"></div>" +
+                "<div><textarea> Note  here </textarea><input id=\"g\"></div>" +
+                "<div><span>Sign<br> <br>in</span><input id=\"h\"></div>" +
+                "<script>var Username = 1;</script><style>.Username{}</style>" +
+                "<div><span>Username</span><!-- Username --><input id=\"i\"></div>" +
+                "</body></html>";
+        List<AnchorQuery> queries = new ArrayList<>();
+
+        for (String ownText : getOwnTexts(Jsoup.parse(html)))
+        {
+            queries.add(new AnchorQuery(ownText, "input"));
+        }
+
+        queries.add(new AnchorQuery("Zero\u200cwidth\u200djoiner", "input"));
+        queries.add(new AnchorQuery("Software", "input"));
+        queries.add(new AnchorQuery("Password", "input"));
+
+        //Act and Assert
+        assertSameAsLocal(html, queries);
+    }
+
+    private void assertSameAsLocal(String html, List<AnchorQuery> queries)
+    {
+        Document localDocument = Jsoup.parse(html);
+        List<AnchorResolution> resolutions = new AnchorBatchResolver().resolve(localDocument, queries);
+        JsoupWebDriver scriptDriver = new ScriptEngineWebDriver(engine, Jsoup.parse(html));
+        WebElementLocator inBrowser = new WebElementLocator(WebElementLocator.Strategy.IN_BROWSER);
+        XpathBuilder xpathBuilder = new XpathBuilder();
+        int found = 0;
+
+        for (int i = 0; i < queries.size(); i++)
+        {
+            List<String> expected = new ArrayList<>();
+
+            for (Element element : resolutions.get(i).getElements())
+            {
+                expected.add(xpathBuilder.buildAbsolute(element));
+            }
+
+            List<String> actual = new ArrayList<>();
+
+            for (WebElement webElement : inBrowser.getWebElements(scriptDriver, queries.get(i)))
+            {
+                actual.add(xpathBuilder.buildAbsolute(((JsoupWebElement) webElement).getElement()));
+            }
+
+            Assert.assertEquals(queries.get(i).toString(), expected, actual);
+            found += expected.isEmpty() ? 0 : 1;
+        }
+
+        Assert.assertTrue(found > 0);
+    }
+
+    private static Set<String> getOwnTexts(Document document)
+    {
+        Set<String> ownTexts = new LinkedHashSet<>();
+
+        for (Element element : document.getAllElements())
+        {
+            String ownText = element.ownText().trim();
+
+            if (!ownText.isEmpty())
+            {
+                ownTexts.add(ownText);
+            }
+        }
+
+        return ownTexts;
+    }
+
+    /**
+     * Answers every script by running it in the script engine over a DOM shim of the page: parentNode, firstChild,
+     * nextSibling, nodeType, nodeValue and tagName, getElementsByTagName('*') and querySelectorAll answered by jsoup
+     */
+    private static class ScriptEngineWebDriver extends JsoupWebDriver
+    {
+        private final ScriptEngine engine;
+        private final Document document;
+        private final List<Element> elements;
+        private final Map<Element, Integer> indexes = new IdentityHashMap<>();
+
+        ScriptEngineWebDriver(ScriptEngine engine, Document document)
+        {
+            super(document);
+            this.engine = engine;
+            this.document = document;
+            elements = document.getAllElements().subList(1, document.getAllElements().size());
+
+            for (int i = 0; i < elements.size(); i++)
+            {
+                indexes.put(elements.get(i), i);
+            }
+        }
+
+        @Override
+        public Object executeScript(String script, Object... args)
+        {
+            StringBuilder targets = new StringBuilder("[");
+
+            for (Element target : document.select((String) args[2]))
+            {
+                targets.append(targets.length() > 1 ? "," : "").append(indexes.get(target));
+            }
+
+            engine.put("tree", toJson(document.childNodes()));
+            engine.put("targets", targets.append(']').toString());
+            engine.put("scriptArguments", args);
+            String found;
+
+            try
+            {
+                found = (String) engine.eval(DOM_SHIM +
+                        "(function() {" + script + "}).apply(null, Java.from(scriptArguments))" +
+                        ".map(function(element) { return elements.indexOf(element); }).join(',');");
+            }
+            catch (ScriptException e)
+            {
+                throw new IllegalStateException(e);
+            }
+
+            List<WebElement> webElements = new ArrayList<>();
+
+            for (String index : found.isEmpty() ? new String[0] : found.split(","))
+            {
+                Element element = elements.get(Integer.parseInt(index));
+                webElements.add(findElement(By.xpath(new XpathBuilder().buildAbsolute(element))));
+            }
+
+            return webElements;
+        }
+
+        private static String toJson(List<Node> nodes)
+        {
+            StringBuilder json = new StringBuilder("[");
+
+            for (Node node : nodes)
+            {
+                json.append(json.length() > 1 ? "," : "");
+
+                if (node instanceof Element)
+                {
+                    json.append("{\"type\":1,\"tag\":");
+                    appendString(json, ((Element) node).tagName());
+                    json.append(",\"children\":").append(toJson(node.childNodes())).append('}');
+                }
+                else if (node instanceof TextNode)
+                {
+                    json.append("{\"type\":3,\"value\":");
+                    appendString(json, ((TextNode) node).getWholeText());
+                    json.append('}');
+                }
+                else if (node instanceof DataNode)
+                {
+                    json.append("{\"type\":3,\"value\":");
+                    appendString(json, ((DataNode) node).getWholeData());
+                    json.append('}');
+                }
+                else if (node instanceof Comment)
+                {
+                    json.append("{\"type\":8,\"value\":");
+                    appendString(json, ((Comment) node).getData());
+                    json.append('}');
+                }
+                else
+                {
+                    //doctype and xml declarations are not below the html element
+                    json.setLength(json.length() - (json.length() > 1 && json.charAt(json.length() - 1) == ',' ? 1 : 0));
+                }
+            }
+
+            return json.append(']').toString();
+        }
+
+        private static void appendString(StringBuilder json, String value)
+        {
+            json.append('"');
+
+            for (int i = 0; i < value.length(); i++)
+            {
+                char c = value.charAt(i);
+
+                if (c == '"' || c == '\\')
+                {
+                    json.append('\\').append(c);
+                }
+                else if (c < 0x20 || c == '\u2028' || c == '\u2029')
+                {
+                    json.append(String.format("\\u%04x", (int) c));
+                }
+                else
+                {
+                    json.append(c);
+                }
+            }
+
+            json.append('"');
+        }
+    }
+}
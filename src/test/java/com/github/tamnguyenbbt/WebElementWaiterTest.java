@@ -0,0 +1,160 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.ActiveDocumentTracker;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.JsoupWebDriver;
+import com.github.tamnguyenbbt.dom.WebElementBatchResolver;
+import com.github.tamnguyenbbt.dom.WebElementWaiter;
+import org.jsoup.nodes.Document;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class WebElementWaiterTest
+{
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void getSnapshot_returns_the_version_of_the_returned_document()
+    {
+        //Arrange
+        JsoupWebDriver driver = new JsoupWebDriver(document);
+        ActiveDocumentTracker tracker = new ActiveDocumentTracker(driver);
+        ActiveDocumentTracker.Snapshot loaded = tracker.getSnapshot();
+
+        //Act
+        driver.modify(document.body(), body -> body.appendElement("input").attr("id", "nickname"));
+        ActiveDocumentTracker.Snapshot patched = tracker.getSnapshot();
+        ActiveDocumentTracker.Snapshot unchanged = tracker.getSnapshot();
+
+        //Assert
+        Assert.assertSame(loaded.getDocument(), patched.getDocument());
+        Assert.assertEquals(loaded.getVersion() + 1, patched.getVersion());
+        Assert.assertEquals(patched.getVersion(), unchanged.getVersion());
+        Assert.assertNotNull(patched.getDocument().getElementById("nickname"));
+    }
+
+    @Test
+    public void awaitWebElement_rendered_after_the_first_poll() throws InterruptedException
+    {
+        //Arrange
+        JsoupWebDriver driver = new JsoupWebDriver(document);
+        WebElementWaiter waiter = newWaiter(driver);
+        Thread render = new Thread(() ->
+        {
+            try
+            {
+                Thread.sleep(100);
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+
+            driver.modify(document.body(), body -> body.append("<div><span>Nickname</span><input id=\"nickname\"></div>"));
+        });
+
+        //Act
+        render.start();
+        WebElement webElement = waiter.awaitWebElement("Nickname", "input", 10, TimeUnit.SECONDS);
+        render.join();
+
+        //Assert
+        Assert.assertEquals("nickname", webElement.getAttribute("id"));
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void awaitWebElement_times_out_when_not_rendered() throws InterruptedException
+    {
+        //Arrange
+        WebElementWaiter waiter = newWaiter(new JsoupWebDriver(document));
+
+        //Act
+        waiter.awaitWebElement("Nickname", "input", 200, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void awaitWebElement_fails_fast_when_the_unchanged_page_has_several_matches() throws InterruptedException
+    {
+        //Arrange
+        JsoupWebDriver driver = new JsoupWebDriver(document)
+        {
+            @Override
+            public List<WebElement> findElements(By by)
+            {
+                List<WebElement> found = new ArrayList<>(super.findElements(by));
+                found.addAll(super.findElements(By.tagName("input")));
+                return found;
+            }
+        };
+        WebElementWaiter waiter = newWaiter(driver);
+        long start = System.nanoTime();
+
+        try
+        {
+            //Act
+            waiter.awaitWebElement("Username", "input", 30, TimeUnit.SECONDS);
+            Assert.fail();
+        }
+        catch (TimeoutException e)
+        {
+            Assert.fail(e.getMessage());
+        }
+        catch (WebDriverException e)
+        {
+            //Assert
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        }
+    }
+
+    @Test
+    public void awaitWebElement_searches_again_when_the_page_changed_during_the_lookup() throws InterruptedException
+    {
+        //Arrange
+        JsoupWebDriver driver = new JsoupWebDriver(document)
+        {
+            private boolean changed;
+
+            @Override
+            public List<WebElement> findElements(By by)
+            {
+                if (changed)
+                {
+                    return super.findElements(by);
+                }
+
+                //a script renders a second field after the local search, the browser sees both
+                changed = true;
+                modify(document.body(), body -> body.appendElement("input").attr("name", "Username"));
+                return super.findElements(By.cssSelector("input[name=Username]"));
+            }
+        };
+        WebElementWaiter waiter = newWaiter(driver);
+
+        //Act
+        WebElement webElement = waiter.awaitWebElement("Username", "input", 10, TimeUnit.SECONDS);
+
+        //Assert
+        Assert.assertEquals("username", webElement.getAttribute("id"));
+    }
+
+    private static WebElementWaiter newWaiter(JsoupWebDriver driver)
+    {
+        return new WebElementWaiter(driver, new ActiveDocumentTracker(driver), new WebElementBatchResolver(), 10, 100);
+    }
+}
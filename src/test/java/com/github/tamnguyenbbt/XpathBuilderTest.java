@@ -0,0 +1,93 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DomIndex;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.XpathBuilder;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class XpathBuilderTest
+{
+    private Document document;
+    private XpathBuilder xpathBuilder;
+
+    @Before
+    public void init() throws IOException
+    {
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = new DomUtil().htmlFileToDocument(resourcePath);
+        xpathBuilder = new XpathBuilder();
+    }
+
+    @Test
+    public void build()
+    {
+        //Arrange
+        String expectedXPath = "//div[div[contains(text(),\"Username\")]]/input[@id=\"username\"][@jsname=\"YPqjbf\"][@name=\"Username\"]";
+        Element anchor = DomIndex.of(document).getElementsByTagNameMatchingOwnText("div", "Username").get(0);
+
+        //Act
+        String xpath = xpathBuilder.build(anchor, document.getElementById("username"));
+
+        //Assert
+        Assert.assertEquals(expectedXPath, xpath);
+    }
+
+    @Test
+    public void build_self()
+    {
+        //Arrange
+        String expectedXPath = "//button[contains(text(),\"Next\")]";
+        Element anchor = DomIndex.of(document).getElementsByTagNameMatchingOwnText("button", "Next").get(0);
+
+        //Act
+        String xpath = xpathBuilder.build(anchor, anchor);
+
+        //Assert
+        Assert.assertEquals(expectedXPath, xpath);
+    }
+
+    @Test
+    public void build_lazily_for_many_targets()
+    {
+        //Arrange
+        Element anchor = DomIndex.of(document).getElementsByTagNameMatchingOwnText("div", "Username").get(0);
+        List<Element> targets = Arrays.asList(document.getElementById("username"), document.getElementById("lastName"));
+
+        //Act
+        List<String> xpaths = xpathBuilder.build(anchor, targets);
+
+        //Assert
+        Assert.assertEquals(2, xpaths.size());
+        Assert.assertEquals(xpathBuilder.build(anchor, targets.get(0)), xpaths.get(0));
+        Assert.assertEquals(xpathBuilder.build(anchor, targets.get(1)), xpaths.get(1));
+    }
+
+    @Test
+    public void build_reads_the_current_own_text_of_an_indexed_anchor()
+    {
+        //Arrange
+        Element anchor = DomIndex.of(document).getElementsByTagNameMatchingOwnText("div", "Username").get(0);
+        anchor.text("User name");
+
+        //Act
+        String xpath = xpathBuilder.build(anchor, document.getElementById("username"));
+
+        //Assert
+        Assert.assertTrue(xpath.startsWith("//div[div[contains(text(),\"User name\")]]"));
+    }
+
+    @Test
+    public void quote()
+    {
+        Assert.assertEquals("\"Don't\"", XpathBuilder.quote("Don't"));
+        Assert.assertEquals("'Say \"hi\"'", XpathBuilder.quote("Say \"hi\""));
+        Assert.assertEquals("concat(\"Don't say \",'\"',\"hi\",'\"',\"\")", XpathBuilder.quote("Don't say \"hi\""));
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DocumentFingerprint;
+import com.github.tamnguyenbbt.dom.DomIndex;
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.ElementInfo;
+import com.github.tamnguyenbbt.dom.XpathCache;
+import com.github.tamnguyenbbt.exception.AmbiguousAnchorElementsException;
+import com.github.tamnguyenbbt.exception.AmbiguousFoundXpathsException;
+import com.github.tamnguyenbbt.exception.AnchorIndexIfMultipleFoundOutOfBoundException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class XpathCacheTest
+{
+    private DomUtil domUtil;
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        domUtil = new DomUtil();
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = domUtil.htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void getXpaths_hit_on_a_fresh_parse_of_the_same_page()
+            throws IOException, AmbiguousAnchorElementsException, AnchorIndexIfMultipleFoundOutOfBoundException
+    {
+        //Arrange
+        XpathCache xpathCache = new XpathCache();
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        Document copy = domUtil.htmlFileToDocument(resourcePath);
+        ElementInfo anchorElementInfo = new ElementInfo();
+        anchorElementInfo.ownText = "userna";
+        anchorElementInfo.tagName = "div";
+        anchorElementInfo.condition.whereIgnoreCaseForOwnText = true;
+        anchorElementInfo.condition.whereOwnTextContainingPattern = true;
+        ElementInfo sameAnchorElementInfo = new ElementInfo();
+        sameAnchorElementInfo.ownText = "userna";
+        sameAnchorElementInfo.tagName = "div";
+        sameAnchorElementInfo.condition.whereIgnoreCaseForOwnText = true;
+        sameAnchorElementInfo.condition.whereOwnTextContainingPattern = true;
+
+        //Act
+        List<String> xpaths = xpathCache.getXpaths(document, anchorElementInfo, "input");
+        List<String> cachedXpaths = xpathCache.getXpaths(copy, sameAnchorElementInfo, "input");
+        sameAnchorElementInfo.condition.whereIgnoreCaseForOwnText = false;
+        xpathCache.getXpaths(copy, sameAnchorElementInfo, "input");
+
+        //Assert
+        Assert.assertEquals(xpaths, cachedXpaths);
+        Assert.assertEquals(1, xpathCache.getHitCount());
+        Assert.assertEquals(2, xpathCache.getMissCount());
+        Assert.assertEquals(2, xpathCache.size());
+    }
+
+    @Test
+    public void fingerprint_is_reused_until_invalidated()
+    {
+        //Arrange
+        long fingerprint = DocumentFingerprint.of(document);
+        document.getElementById("username").attr("name", "changed");
+
+        //Act
+        long reused = DocumentFingerprint.of(document);
+        DomIndex.invalidate(document);
+        long recomputed = DocumentFingerprint.of(document);
+
+        //Assert
+        Assert.assertEquals(fingerprint, reused);
+        Assert.assertNotEquals(fingerprint, recomputed);
+    }
+
+    @Test
+    public void fingerprint_keeps_attribute_values_and_own_texts_apart()
+    {
+        //Arrange
+        Document attributeValue = Jsoup.parse("<div a=\"1#z\"></div>");
+        Document ownText = Jsoup.parse("<div a=\"1\">z#</div>");
+
+        //Act
+        long attributeValueFingerprint = DocumentFingerprint.of(attributeValue);
+        long ownTextFingerprint = DocumentFingerprint.of(ownText);
+
+        //Assert
+        Assert.assertNotEquals(attributeValueFingerprint, ownTextFingerprint);
+    }
+
+    @Test
+    public void getXpaths_miss_on_a_page_with_the_same_fingerprint_and_other_nodes()
+            throws AmbiguousAnchorElementsException
+    {
+        //Arrange
+        Document split = Jsoup.parse("<p>Name<b></b>:</p><input>");
+        Document joined = Jsoup.parse("<p>Name:<b></b></p><input>");
+        List<Document> searched = new ArrayList<>();
+        DomUtil countingDomUtil = new DomUtil()
+        {
+            @Override
+            public List<String> getXpaths(Document document, String anchorElementOwnText, String searchCssQuery)
+            {
+                searched.add(document);
+                return Collections.singletonList("//input");
+            }
+        };
+        XpathCache xpathCache = new XpathCache(countingDomUtil, XpathCache.DEFAULT_MAX_SIZE);
+
+        //Act
+        xpathCache.getXpaths(split, "Name:", "input");
+        xpathCache.getXpaths(joined, "Name:", "input");
+
+        //Assert
+        Assert.assertEquals(DocumentFingerprint.of(split), DocumentFingerprint.of(joined));
+        Assert.assertEquals(2, searched.size());
+        Assert.assertEquals(0, xpathCache.getHitCount());
+    }
+
+    @Test
+    public void exact_match_and_best_effort_lookups_are_cached_apart()
+            throws AmbiguousAnchorElementsException, AmbiguousFoundXpathsException
+    {
+        //Arrange
+        List<String> searches = new ArrayList<>();
+        DomUtil countingDomUtil = new DomUtil()
+        {
+            @Override
+            public List<String> getXpathsExactMatch(Document document, String anchorElementOwnText, String searchCssQuery)
+            {
+                searches.add("getXpathsExactMatch");
+                return Collections.singletonList("//input[@id=\"username\"]");
+            }
+
+            @Override
+            public List<String> getXpathsBestEffort(Document document, String anchorElementTagName, String anchorElementOwnText,
+                                                    String searchCssQuery)
+            {
+                searches.add("getXpathsBestEffort");
+                return null;
+            }
+
+            @Override
+            public String getXpathExactMatch(Document document, String anchorElementTagName, String anchorElementOwnText,
+                                             String searchCssQuery)
+            {
+                searches.add("getXpathExactMatch");
+                return "//input[@id=\"username\"]";
+            }
+
+            @Override
+            public String getXpathBestEffort(Document document, String anchorElementOwnText, String searchCssQuery)
+            {
+                searches.add("getXpathBestEffort");
+                return null;
+            }
+        };
+        XpathCache xpathCache = new XpathCache(countingDomUtil, XpathCache.DEFAULT_MAX_SIZE);
+
+        for (int i = 0; i < 2; i++)
+        {
+            //Act
+            List<String> exactMatch = xpathCache.getXpathsExactMatch(document, "Username", "input");
+            List<String> bestEffort = xpathCache.getXpathsBestEffort(document, "div", "Username", "input");
+            String singleExactMatch = xpathCache.getXpathExactMatch(document, "div", "Username", "input");
+            String singleBestEffort = xpathCache.getXpathBestEffort(document, "Username", "input");
+
+            //Assert
+            Assert.assertEquals(Collections.singletonList("//input[@id=\"username\"]"), exactMatch);
+            Assert.assertNull(bestEffort);
+            Assert.assertEquals("//input[@id=\"username\"]", singleExactMatch);
+            Assert.assertNull(singleBestEffort);
+        }
+
+        Assert.assertEquals(4, searches.size());
+        Assert.assertEquals(4, xpathCache.getHitCount());
+        Assert.assertEquals(4, xpathCache.size());
+    }
+}
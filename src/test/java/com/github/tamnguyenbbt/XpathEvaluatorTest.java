@@ -0,0 +1,68 @@
+package com.github.tamnguyenbbt;
+
+import com.github.tamnguyenbbt.dom.DomUtil;
+import com.github.tamnguyenbbt.dom.XpathEvaluator;
+import com.github.tamnguyenbbt.exception.AmbiguousAnchorElementsException;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.List;
+
+public class XpathEvaluatorTest
+{
+    private DomUtil domUtil;
+    private Document document;
+
+    @Before
+    public void init() throws IOException
+    {
+        domUtil = new DomUtil();
+        String resourcePath = getClass().getClassLoader().getResource("google-signup.html").getFile();
+        document = domUtil.htmlFileToDocument(resourcePath);
+    }
+
+    @Test
+    public void select_generated_xpath() throws AmbiguousAnchorElementsException
+    {
+        //Arrange
+        String xpath = domUtil.getXpaths(document, "div", "Username", "input").get(0);
+
+        //Act
+        List<Element> elements = XpathEvaluator.select(document, xpath);
+
+        //Assert
+        Assert.assertEquals(1, elements.size());
+        Assert.assertEquals("YPqjbf", elements.get(0).attr("jsname"));
+        Assert.assertTrue(XpathEvaluator.isUnique(document, xpath));
+    }
+
+    @Test
+    public void select_not_unique_xpath()
+    {
+        //Act
+        List<Element> elements = XpathEvaluator.select(document, "//*[@type='password']");
+
+        //Assert
+        Assert.assertEquals(2, elements.size());
+        Assert.assertFalse(XpathEvaluator.isUnique(document, "//*[@type='password']"));
+    }
+
+    @Test
+    public void select_in_document_order()
+    {
+        //Act
+        List<Element> elements = XpathEvaluator.select(document, "//div//input");
+
+        //Assert
+        Assert.assertEquals(document.select("div input"), elements);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_unsupported_xpath()
+    {
+        XpathEvaluator.compile("//div[normalize-space()='Username']");
+    }
+}